@@ -0,0 +1,76 @@
+// Hibernate flush cost with and without build-time entity enhancement.
+//
+// Build and run the backend twice against the same database:
+//   enhanced:   mvn package -DskipTests
+//   unenhanced: mvn package -DskipTests -Pno-enhance
+// both with SPRING_PROFILES_ACTIVE=docker and GYMHUB_RATE_LIMIT_ENABLED=false,
+// then for each:
+//   k6 run -e BASE_URL=http://localhost:8081 -e EMAIL=admin@example.com \
+//          -e PASSWORD=secret -e APPOINTMENT_ID=1 loadtest/flush-benchmark.js
+//
+// The account must be an ADMIN, to read /actuator/metrics. Each iteration
+// re-saves an appointment unchanged: its flush only dirty-checks the
+// appointment, service, location and user the request loaded, so the time
+// is not drowned by SQL or row locks. The teardown prints the mean
+// gymhub.hibernate.flush time over the run; compare it between builds,
+// after a warm-up run on each.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const VUS = parseInt(__ENV.VUS || '50', 10);
+
+export const options = {
+  scenarios: {
+    writers: {
+      executor: 'constant-vus',
+      vus: VUS,
+      duration: __ENV.DURATION || '2m',
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+function flushStats(params) {
+  const res = http.get(`${BASE_URL}/actuator/metrics/gymhub.hibernate.flush`, params);
+  check(res, { 'metric available': (r) => r.status === 200 });
+  const stat = (name) => res.json('measurements').find((m) => m.statistic === name).value;
+  return { count: stat('COUNT'), totalSeconds: stat('TOTAL_TIME') };
+}
+
+export function setup() {
+  const res = http.post(`${BASE_URL}/auth/login`,
+    JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+    { headers: { 'Content-Type': 'application/json' } });
+  check(res, { 'logged in': (r) => r.status === 200 });
+  const params = {
+    headers: { Authorization: `Bearer ${res.json('token')}`, 'Content-Type': 'application/json' },
+  };
+
+  const appointment = http.get(`${BASE_URL}/appointments/${__ENV.APPOINTMENT_ID}`, params).json();
+
+  return {
+    params,
+    appointmentBody: JSON.stringify({
+      startTime: appointment.startTime,
+      endTime: appointment.endTime,
+      locationId: appointment.locationId,
+      gymServiceId: appointment.gymServiceId,
+      maxCapacity: appointment.maxCapacity,
+    }),
+    before: flushStats(params),
+  };
+}
+
+export default function (data) {
+  const appointment = http.put(`${BASE_URL}/appointments/${__ENV.APPOINTMENT_ID}`,
+    data.appointmentBody, data.params);
+  check(appointment, { 'appointment saved': (r) => r.status === 200 });
+}
+
+export function teardown(data) {
+  const after = flushStats(data.params);
+  const flushes = after.count - data.before.count;
+  const meanMicros = ((after.totalSeconds - data.before.totalSeconds) / flushes) * 1e6;
+  console.log(`${flushes} flushes, mean ${meanMicros.toFixed(1)} µs per flush`);
+}
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Time to first request: from JVM launch until /actuator/health answers 200,
+# for the plain jar and for the aot-cds build (AOT + AppCDS archive).
+# Fails when the aot-cds start is less than MIN_SPEEDUP_PCT faster than the
+# plain jar measured on the same machine, or, if MAX_STARTUP_MS is set, when
+# it takes longer than that.
+#
+# Needs a reachable database and both builds:
+#   docker compose up -d postgres
+#   mvn -Paot-cds package -DskipTests
+#   STRIPE_SECRET_KEY=sk_test_x loadtest/startup-benchmark.sh
+#
+# Extra JVM/Spring arguments (e.g. another datasource URL) go in JAVA_ARGS.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8081}
+MAX_STARTUP_MS=${MAX_STARTUP_MS:-}
+MIN_SPEEDUP_PCT=${MIN_SPEEDUP_PCT:-20}
+PROFILES=${PROFILES:-docker}
+JAVA_ARGS=${JAVA_ARGS:-"-Dspring.datasource.url=jdbc:postgresql://localhost:5432/gymhubdb"}
+
+PLAIN_JAR=$(ls target/gymhub-*.jar | grep -v -- '-cds.jar' | head -1)
+CDS_DIR=target/cds
+CDS_JAR=$(cd "$CDS_DIR" && ls gymhub-*-cds.jar)
+
+# Prints milliseconds until the health endpoint first returns 200
+time_to_first_request() {
+    local dir=$1
+    shift
+    local log
+    log=$(mktemp)
+    local start end pid
+    start=$(date +%s%N)
+    (cd "$dir" && exec java $JAVA_ARGS -Dspring.profiles.active="$PROFILES" "$@") >"$log" 2>&1 &
+    pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/actuator/health")" = "200" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited before serving a request; log: $log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    rm -f "$log"
+    echo $(((end - start) / 1000000))
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+measure() {
+    local label=$1
+    shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(time_to_first_request "$@")")
+    done
+    local result
+    result=$(printf '%s\n' "${times[@]}" | median)
+    echo "$label: ${times[*]} ms -> median ${result} ms" >&2
+    echo "$result"
+}
+
+plain=$(measure "plain jar" . -jar "$PLAIN_JAR")
+cds=$(measure "aot + cds" "$CDS_DIR" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$CDS_JAR")
+
+speedup=$(((plain - cds) * 100 / plain))
+echo "aot + cds starts ${speedup}% faster (${plain} ms -> ${cds} ms)"
+
+if [ -n "$MAX_STARTUP_MS" ] && [ "$cds" -gt "$MAX_STARTUP_MS" ]; then
+    echo "FAIL: aot + cds time to first request ${cds} ms exceeds ${MAX_STARTUP_MS} ms" >&2
+    exit 1
+fi
+if [ "$speedup" -lt "$MIN_SPEEDUP_PCT" ]; then
+    echo "FAIL: aot + cds is only ${speedup}% faster than the plain jar, expected at least ${MIN_SPEEDUP_PCT}%" >&2
+    exit 1
+fi
@@ -0,0 +1,53 @@
+// Throughput and p99 latency at 1k concurrent clients, for comparing the
+// platform-thread build with virtual-thread mode.
+//
+// Run the backend twice against the same database, once per mode, with the
+// rate limiter off so it does not cap the load:
+//   platform: SPRING_PROFILES_ACTIVE=docker
+//   virtual:  SPRING_PROFILES_ACTIVE=docker,virtual-threads  (built with -Pvirtual-threads)
+//   both:     GYMHUB_RATE_LIMIT_ENABLED=false
+// then for each:
+//   k6 run -e BASE_URL=http://localhost:8081 -e EMAIL=member@example.com \
+//          -e PASSWORD=secret -e VUS=1000 loadtest/virtual-threads.js
+//
+// Compare http_reqs (rate) and http_req_duration p(99) between the runs.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const VUS = parseInt(__ENV.VUS || '1000', 10);
+
+export const options = {
+  scenarios: {
+    readers: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: VUS },
+        { duration: '2m', target: VUS },
+        { duration: '10s', target: 0 },
+      ],
+      gracefulRampDown: '10s',
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+  const res = http.post(`${BASE_URL}/auth/login`,
+    JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+    { headers: { 'Content-Type': 'application/json' } });
+  check(res, { 'logged in': (r) => r.status === 200 });
+  return { token: res.json('token') };
+}
+
+// The list endpoints that make up most production traffic, each a few
+// JDBC round trips
+const PATHS = ['/appointments/available', '/services', '/payments/credits', '/payments/my?size=20'];
+
+export default function (data) {
+  const params = { headers: { Authorization: `Bearer ${data.token}` } };
+  const path = PATHS[Math.floor(Math.random() * PATHS.length)];
+  const res = http.get(`${BASE_URL}${path}`, params);
+  check(res, { 'status 200': (r) => r.status === 200 });
+}
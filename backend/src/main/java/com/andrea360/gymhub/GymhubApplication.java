@@ -1,9 +1,14 @@
 package com.andrea360.gymhub;
 
+import com.andrea360.gymhub.config.GymhubRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(GymhubRuntimeHints.class)
 public class GymhubApplication {
 
 	public static void main(String[] args) {
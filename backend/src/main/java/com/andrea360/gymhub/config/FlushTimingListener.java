@@ -0,0 +1,32 @@
+package com.andrea360.gymhub.config;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.SessionEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every Hibernate flush into {@code gymhub.hibernate.flush}, the cost
+ * the entity enhancement's dirty tracking is meant to cut. Hibernate creates
+ * one instance per session from {@code hibernate.session.events.auto}, so it
+ * records through the global registry Spring Boot also publishes to.
+ */
+public class FlushTimingListener implements SessionEventListener {
+
+    private static final Timer FLUSH_TIMER = Timer.builder("gymhub.hibernate.flush")
+            .description("Time spent flushing a Hibernate session")
+            .register(Metrics.globalRegistry);
+
+    private long flushStartNanos;
+
+    @Override
+    public void flushStart() {
+        flushStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        FLUSH_TIMER.record(System.nanoTime() - flushStartNanos, TimeUnit.NANOSECONDS);
+    }
+}
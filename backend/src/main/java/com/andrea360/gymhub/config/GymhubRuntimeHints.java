@@ -0,0 +1,102 @@
+package com.andrea360.gymhub.config;
+
+import com.stripe.model.Event;
+import com.stripe.model.EventDataObjectDeserializer;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeError;
+import com.stripe.param.PaymentIntentCreateParams;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the AOT and native builds, covering
+ * what Spring's own AOT processing cannot see. Controller request and
+ * response types are found from the handler signatures; the rest is here:
+ * <ul>
+ *   <li>DTOs, which also travel over STOMP and into outbox payloads, and
+ *   their Lombok builders;</li>
+ *   <li>JJWT, which loads its implementation and Jackson bindings by
+ *   class name and service loader;</li>
+ *   <li>the Stripe models and params that Gson reads and writes
+ *   reflectively;</li>
+ *   <li>cache configuration and migration scripts.</li>
+ * </ul>
+ */
+public class GymhubRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String DTO_PACKAGE = "com.andrea360.gymhub.dto";
+
+    private static final List<String> JJWT_IMPLEMENTATIONS = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        for (Class<?> dto : classesIn(DTO_PACKAGE, classLoader)) {
+            bindings.registerReflectionHints(hints.reflection(), dto);
+            for (Class<?> nested : dto.getDeclaredClasses()) {
+                if (nested.getSimpleName().endsWith("Builder")) {
+                    hints.reflection().registerType(nested,
+                            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+                }
+            }
+        }
+
+        for (String type : JJWT_IMPLEMENTATIONS) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        for (Class<?> type : List.of(Event.class, EventDataObjectDeserializer.class, PaymentIntent.class,
+                StripeError.class, PaymentIntentCreateParams.class)) {
+            registerWithNested(hints, type);
+        }
+
+        // Instantiated by Hibernate from hibernate.session.events.auto
+        hints.reflection().registerType(FlushTimingListener.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        hints.resources().registerPattern("caffeine.conf");
+        hints.resources().registerPattern("db/migration/*/*.sql");
+    }
+
+    private static void registerWithNested(RuntimeHints hints, Class<?> type) {
+        hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        for (Class<?> nested : type.getDeclaredClasses()) {
+            registerWithNested(hints, nested);
+        }
+    }
+
+    private static List<Class<?>> classesIn(String basePackage, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+
+        List<Class<?>> classes = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            classes.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+        }
+        return classes;
+    }
+}
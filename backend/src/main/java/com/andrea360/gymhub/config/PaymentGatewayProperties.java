@@ -0,0 +1,67 @@
+package com.andrea360.gymhub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Payment provider selection and the resilience settings applied to every
+ * gateway call.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gymhub.payment-gateway")
+public class PaymentGatewayProperties {
+
+    /**
+     * {@code stripe} or {@code fake}
+     */
+    private String provider = "stripe";
+
+    private int threads = 8;
+
+    private int queueCapacity = 32;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(8);
+
+    /**
+     * Upper bound for one attempt, including time spent queued for a thread
+     */
+    private Duration callTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Attempts for idempotent calls; non-idempotent calls are tried once
+     */
+    private int maxAttempts = 3;
+
+    private Duration backoffBase = Duration.ofMillis(200);
+
+    private Duration backoffMax = Duration.ofSeconds(2);
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Fake fake = new Fake();
+
+    @Data
+    public static class CircuitBreaker {
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Fake {
+        private Duration latency = Duration.ofMillis(150);
+        private Duration latencyJitter = Duration.ofMillis(100);
+        private double failureRate = 0.0;
+        private double timeoutRate = 0.0;
+        /**
+         * When positive, unpaid intents report {@code succeeded} once they
+         * are this old, standing in for payments whose webhook never arrived.
+         */
+        private Duration settleAfter = Duration.ZERO;
+    }
+}
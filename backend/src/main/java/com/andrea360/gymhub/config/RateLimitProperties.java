@@ -0,0 +1,48 @@
+package com.andrea360.gymhub.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-route token bucket limits. Rules are matched in order; requests that
+ * match no rule use {@code defaultLimit}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gymhub.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private Limit defaultLimit = new Limit(100, 20);
+
+    private List<Rule> rules = new ArrayList<>();
+
+    private List<String> excludedPaths = new ArrayList<>(List.of("/actuator/**", "/ws/**"));
+
+    private Duration idleEviction = Duration.ofMinutes(10);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private int capacity;
+        private double refillPerSecond;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Rule {
+        private String method; // null matches any method
+        private String path;
+        private int capacity;
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,78 @@
+package com.andrea360.gymhub.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Pins reads to the primary where a replica could hand back stale data:
+ * for the whole of any modifying request, and for a client's requests for a
+ * short window after it modified something (e.g. the appointment list
+ * right after booking).
+ * <p>
+ * The window travels with the client in a cookie holding its end (epoch
+ * millis), so it holds whichever instance serves the next request. Values
+ * further out than one window are ignored.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    public static final String PIN_COOKIE = "gymhub-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+
+    public ReadYourWritesInterceptor(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long now = System.currentTimeMillis();
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            ReplicaRoutingDataSource.forcePrimary();
+            // Set before the handler runs, while the response is still open
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(PIN_COOKIE, String.valueOf(now + window.toMillis()))
+                    .path("/")
+                    .maxAge(window)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+            return true;
+        }
+
+        long pinnedUntil = pinnedUntil(request);
+        if (pinnedUntil > now && pinnedUntil <= now + window.toMillis()) {
+            ReplicaRoutingDataSource.forcePrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.clearForcePrimary();
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (PIN_COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.andrea360.gymhub.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured pool with the primary plus one pool
+ * per replica when {@code gymhub.datasource.routing.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gymhub.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingConfig.class);
+
+    private final ReplicaRoutingProperties properties;
+
+    public ReplicaRoutingConfig(ReplicaRoutingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             MeterRegistry meterRegistry) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReplicaRoutingProperties.Replica settings = properties.getReplicas().get(i);
+            String name = settings.getName() != null ? settings.getName() : "replica-" + (i + 1);
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(settings.getUrl());
+            pool.setUsername(settings.getUsername());
+            pool.setPassword(settings.getPassword());
+            pool.setMaximumPoolSize(settings.getMaxPoolSize());
+            pool.setConnectionTimeout(settings.getConnectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            // Start even if a replica is down; it just stays out of rotation
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReplicaRoutingDataSource.Replica(name, pool));
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primaryDataSource, replicas, properties, meterRegistry);
+        routing.refreshLag();
+        logger.info("Routing read-only transactions to {} replica(s)", replicas.size());
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor() {
+        return new ReadYourWritesInterceptor(properties.getReadYourWritesWindow());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(readYourWritesInterceptor());
+    }
+}
@@ -0,0 +1,177 @@
+package com.andrea360.gymhub.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the
+ * primary. Replicas take turns; one that is lagging more than
+ * {@code max-lag}, or whose lag could not be read, is skipped until it
+ * catches up. With no usable replica, reads go to the primary.
+ * <p>
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}, so the choice is
+ * made once the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> primaryForced = new ThreadLocal<>();
+
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter primaryReads;
+    private final Map<String, Counter> replicaReads = new HashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<Replica> replicas,
+                                    ReplicaRoutingProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.lagQuery = properties.getLagQuery();
+        this.maxLagSeconds = properties.getMaxLag().toMillis() / 1000d;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.name(), replica.dataSource());
+            replicaReads.put(replica.name(), readCounter(meterRegistry, replica.name()));
+            Gauge.builder("gymhub.datasource.replica.lag", replica, Replica::getLagSeconds)
+                    .description("Replication lag in seconds, NaN when unknown")
+                    .tag("replica", replica.name())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+        this.primaryReads = readCounter(meterRegistry, PRIMARY);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Keeps the current thread's transactions on the primary, for requests
+     * that must see their own writes.
+     */
+    public static void forcePrimary() {
+        primaryForced.set(Boolean.TRUE);
+    }
+
+    public static void clearForcePrimary() {
+        primaryForced.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (Boolean.TRUE.equals(primaryForced.get()) || replicas.isEmpty()) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.getLagSeconds() <= maxLagSeconds) {
+                replicaReads.get(replica.name()).increment();
+                return replica.name();
+            }
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Measures every replica's lag. An unreachable replica is treated as
+     * infinitely behind.
+     */
+    @Scheduled(fixedDelayString = "${gymhub.datasource.routing.lag-check-interval-ms:5000}")
+    public void refreshLag() {
+        for (Replica replica : replicas) {
+            double lag;
+            try (Connection connection = replica.dataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                lag = resultSet.next() ? resultSet.getDouble(1) : Double.NaN;
+            } catch (Exception e) {
+                logger.warn("Could not read lag of replica {}: {}", replica.name(), e.getMessage());
+                lag = Double.NaN;
+            }
+
+            boolean wasUsable = replica.getLagSeconds() <= maxLagSeconds;
+            boolean usable = lag <= maxLagSeconds;
+            if (wasUsable != usable) {
+                logger.warn("Replica {} {} (lag {}s)", replica.name(), usable ? "in rotation" : "out of rotation", lag);
+            }
+            replica.setLagSeconds(lag);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("gymhub.datasource.reads")
+                .description("Read-only transactions by the data source that served them")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        // NaN compares false against any limit, so unchecked replicas get no reads
+        private volatile double lagSeconds = Double.NaN;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        double getLagSeconds() {
+            return lagSeconds;
+        }
+
+        void setLagSeconds(double lagSeconds) {
+            this.lagSeconds = lagSeconds;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.andrea360.gymhub.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas that serve {@code @Transactional(readOnly = true)} work.
+ * The primary stays configured through {@code spring.datasource}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gymhub.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Replicas further behind the primary than this get no reads
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Must return the replication lag in seconds. The default works on
+     * PostgreSQL streaming replicas and returns 0 on a primary.
+     */
+    private String lagQuery = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    /**
+     * How long a client's reads stay on the primary after it writes
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maxPoolSize = 10;
+        /**
+         * Kept short so a dead replica fails fast instead of stalling reads
+         * and the lag check
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,73 @@
+package com.andrea360.gymhub.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * Virtual-thread mode, active on Java 21 with
+ * {@code spring.threads.virtual.enabled=true}. Spring Boot already moves
+ * Tomcat and {@code @Async} onto virtual threads; this covers what Boot
+ * leaves alone here:
+ * <ul>
+ *   <li>{@code @Scheduled} jobs, which otherwise share the STOMP broker's
+ *   small heartbeat scheduler;</li>
+ *   <li>the STOMP inbound and outbound channel executors.</li>
+ * </ul>
+ * Deliberately bounded pools (payment gateway bulkhead, webhook workers,
+ * password hashing) keep their platform threads. With request threads no
+ * longer capped, the Hikari pool is what limits concurrent database work.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig implements SchedulingConfigurer, WebSocketMessageBrokerConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    // Channel executors are pools; on virtual threads the size only caps
+    // in-flight messages, it no longer costs a platform thread each
+    private static final int CHANNEL_CONCURRENCY = 256;
+
+    @Bean
+    public SimpleAsyncTaskScheduler virtualThreadTaskScheduler() {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setThreadNamePrefix("scheduling-vt-");
+        scheduler.setVirtualThreads(true);
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.setScheduler(virtualThreadTaskScheduler());
+        logger.info("Scheduled jobs run on virtual threads");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("stomp-inbound-vt-"));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("stomp-outbound-vt-"));
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(String prefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadFactory(new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory());
+        executor.setCorePoolSize(CHANNEL_CONCURRENCY);
+        executor.setMaxPoolSize(CHANNEL_CONCURRENCY);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
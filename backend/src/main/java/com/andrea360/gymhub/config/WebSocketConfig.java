@@ -1,6 +1,9 @@
 package com.andrea360.gymhub.config;
 
+import com.andrea360.gymhub.security.StompAuthChannelInterceptor;
+import com.andrea360.gymhub.security.StompSubscriptionInterceptor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,11 +13,21 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final StompSubscriptionInterceptor stompSubscriptionInterceptor;
+
+    public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+                           StompSubscriptionInterceptor stompSubscriptionInterceptor) {
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.stompSubscriptionInterceptor = stompSubscriptionInterceptor;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
 
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
@@ -23,4 +36,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authentication first, so subscriptions are checked against the CONNECT principal
+        registration.interceptors(stompAuthChannelInterceptor, stompSubscriptionInterceptor);
+    }
+}
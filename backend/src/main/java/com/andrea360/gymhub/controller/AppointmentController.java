@@ -4,17 +4,20 @@ import com.andrea360.gymhub.dto.AppointmentResponse;
 import com.andrea360.gymhub.dto.CreateAppointmentRequest;
 import com.andrea360.gymhub.security.UserDetailsImpl;
 import com.andrea360.gymhub.service.AppointmentService;
+import com.andrea360.gymhub.service.AppointmentViewerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 
@@ -26,6 +29,7 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final AppointmentViewerService appointmentViewerService;
 
     @PostMapping
     @PreAuthorize("hasRole('EMPLOYEE') or hasRole('ADMIN')")
@@ -65,10 +69,24 @@ public class AppointmentController {
         return ResponseEntity.ok(appointments);
     }
 
+    @GetMapping("/history")
+    @PreAuthorize("hasRole('EMPLOYEE') or hasRole('ADMIN')")
+    @Operation(summary = "Get appointment history", description = "Get archived appointments at a location for a date range (Employee/Admin only)")
+    public ResponseEntity<List<AppointmentResponse>> getAppointmentHistory(
+            @RequestParam Long locationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<AppointmentResponse> appointments = appointmentService.getAppointmentHistory(locationId, from, to);
+        return ResponseEntity.ok(appointments);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get appointment by ID", description = "Get appointment details by ID")
-    public ResponseEntity<AppointmentResponse> getAppointmentById(@PathVariable Long id) {
+    public ResponseEntity<AppointmentResponse> getAppointmentById(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
         AppointmentResponse appointment = appointmentService.getAppointmentById(id);
+        appointmentViewerService.recordView(id, userDetails.getEmail());
         return ResponseEntity.ok(appointment);
     }
 
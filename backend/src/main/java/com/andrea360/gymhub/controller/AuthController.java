@@ -2,14 +2,17 @@ package com.andrea360.gymhub.controller;
 
 import com.andrea360.gymhub.dto.AuthResponse;
 import com.andrea360.gymhub.dto.LoginRequest;
+import com.andrea360.gymhub.dto.RefreshTokenRequest;
 import com.andrea360.gymhub.dto.RegisterRequest;
 import com.andrea360.gymhub.dto.UserResponse;
+import com.andrea360.gymhub.security.LoginThrottle;
 import com.andrea360.gymhub.security.UserDetailsImpl;
 import com.andrea360.gymhub.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +28,9 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     @PostMapping("/register")
     @Operation(summary = "Register a new user", description = "Create a new user account with the specified role")
     @ApiResponses(value = {
@@ -41,14 +47,42 @@ public class AuthController {
     @Operation(summary = "Login user", description = "Authenticate user and return JWT token")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Login successful"),
-            @ApiResponse(responseCode = "401", description = "Invalid credentials")
+            @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+            @ApiResponse(responseCode = "429", description = "Too many login attempts")
     })
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+                                              HttpServletRequest httpRequest) {
+        loginThrottle.check(request.getEmail(), httpRequest.getRemoteAddr());
         AuthResponse response = authService.login(request);
         return ResponseEntity.ok(response);
     }
 
 
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh tokens", description = "Exchange a refresh token for a new access/refresh token pair")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokens refreshed"),
+            @ApiResponse(responseCode = "401", description = "Invalid, expired or reused refresh token")
+    })
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.refresh(request.getRefreshToken());
+        return ResponseEntity.ok(response);
+    }
+
+
+    @PostMapping("/logout")
+    @Operation(summary = "Logout user", description = "Revoke the refresh token and the current access token")
+    public ResponseEntity<Void> logout(
+            @RequestBody(required = false) RefreshTokenRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(request != null ? request.getRefreshToken() : null, accessToken);
+        return ResponseEntity.noContent().build();
+    }
+
+
     @GetMapping("/me")
     @Operation(summary = "Get current user", description = "Get information about the currently authenticated user")
     @ApiResponses(value = {
@@ -46,6 +46,17 @@ public class BookingController {
         return ResponseEntity.ok(bookings);
     }
 
+    @GetMapping("/my/history")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('EMPLOYEE') or hasRole('ADMIN')")
+    @Operation(summary = "Get my booking history", description = "Get archived bookings for the current user, most recent first")
+    public ResponseEntity<List<BookingResponse>> getMyBookingHistory(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        List<BookingResponse> bookings = bookingService.getMyBookingHistory(userDetails.getId(), page, size);
+        return ResponseEntity.ok(bookings);
+    }
+
     @GetMapping("/appointment/{appointmentId}")
     @PreAuthorize("hasRole('EMPLOYEE') or hasRole('ADMIN')")
     @Operation(summary = "Get appointment bookings", description = "Get all bookings for an appointment (Employee/Admin only)")
@@ -1,21 +1,26 @@
 package com.andrea360.gymhub.controller;
 
 import com.andrea360.gymhub.dto.CreatePaymentRequest;
+import com.andrea360.gymhub.dto.CreditBalanceResponse;
+import com.andrea360.gymhub.dto.PaymentPageResponse;
 import com.andrea360.gymhub.dto.PaymentResponse;
+import com.andrea360.gymhub.entity.Payment;
 import com.andrea360.gymhub.security.UserDetailsImpl;
 import com.andrea360.gymhub.service.PaymentService;
-import com.stripe.exception.StripeException;
+import com.andrea360.gymhub.service.StripeWebhookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -28,22 +33,24 @@ import java.util.Map;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final StripeWebhookService stripeWebhookService;
 
     @PostMapping
     @PreAuthorize("hasRole('MEMBER') or hasRole('EMPLOYEE') or hasRole('ADMIN')")
     @Operation(summary = "Create payment", description = "Create a payment intent to purchase credits (Stripe)")
     public ResponseEntity<PaymentResponse> createPayment(
             @Valid @RequestBody CreatePaymentRequest request,
-            @AuthenticationPrincipal UserDetailsImpl userDetails) throws StripeException {
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
         PaymentResponse response = paymentService.createPayment(request, userDetails.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @PostMapping("/webhook")
-    @Operation(summary = "Stripe webhook", description = "Handle Stripe webhook events")
-    public ResponseEntity<Void> handleStripeWebhook(@RequestBody String payload) {
-        // This will be called by Stripe when payment is completed
-        // For now, just a placeholder - you'll need to verify signature
+    @Operation(summary = "Stripe webhook", description = "Verify, store and asynchronously process Stripe webhook events")
+    public ResponseEntity<Void> handleStripeWebhook(
+            @RequestBody String payload,
+            @RequestHeader(value = "Stripe-Signature", required = false) String signature) {
+        stripeWebhookService.receive(payload, signature);
         return ResponseEntity.ok().build();
     }
 
@@ -57,13 +64,27 @@ public class PaymentController {
 
     @GetMapping("/my")
     @PreAuthorize("hasRole('MEMBER') or hasRole('EMPLOYEE') or hasRole('ADMIN')")
-    @Operation(summary = "Get my payments", description = "Get all payments for the current user")
-    public ResponseEntity<List<PaymentResponse>> getMyPayments(
+    @Operation(summary = "Get my payments", description = "Get the current user's payments, newest first, with optional date range and status filters. Pass nextCursor back as cursor to get the following page.")
+    public ResponseEntity<PaymentPageResponse> getMyPayments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Payment.PaymentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
             @AuthenticationPrincipal UserDetailsImpl userDetails) {
-        List<PaymentResponse> payments = paymentService.getMyPayments(userDetails.getId());
+        PaymentPageResponse payments = paymentService.getMyPayments(
+                userDetails.getId(), from, to, status, cursor, size);
         return ResponseEntity.ok(payments);
     }
 
+    @GetMapping("/credits")
+    @PreAuthorize("hasRole('MEMBER') or hasRole('EMPLOYEE') or hasRole('ADMIN')")
+    @Operation(summary = "Get credit balances", description = "Get available credits for every service the current user has credits for")
+    public ResponseEntity<List<CreditBalanceResponse>> getCreditBalances(
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ResponseEntity.ok(paymentService.getCreditBalances(userDetails.getId()));
+    }
+
     @GetMapping("/credits/{serviceId}")
     @PreAuthorize("hasRole('MEMBER') or hasRole('EMPLOYEE') or hasRole('ADMIN')")
     @Operation(summary = "Get available credits", description = "Get number of available credits for a service")
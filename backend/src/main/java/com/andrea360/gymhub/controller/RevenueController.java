@@ -0,0 +1,62 @@
+package com.andrea360.gymhub.controller;
+
+import com.andrea360.gymhub.dto.RevenueComparisonResponse;
+import com.andrea360.gymhub.dto.RevenueReportResponse;
+import com.andrea360.gymhub.dto.ServiceRevenueResponse;
+import com.andrea360.gymhub.service.RevenueService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+
+@RestController
+@RequestMapping("/revenue")
+@Tag(name = "Revenue", description = "Revenue reports (Admin only)")
+@SecurityRequirement(name = "Bearer Authentication")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class RevenueController {
+
+    private final RevenueService revenueService;
+
+    @GetMapping
+    @Operation(summary = "Revenue report", description = "Daily revenue and totals for a date range, optionally per location or service")
+    public ResponseEntity<RevenueReportResponse> getReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) Long gymServiceId) {
+        return ResponseEntity.ok(revenueService.getReport(from, to, locationId, gymServiceId));
+    }
+
+    @GetMapping("/top-services")
+    @Operation(summary = "Top services", description = "Services with the highest net revenue in a date range")
+    public ResponseEntity<List<ServiceRevenueResponse>> getTopServices(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(revenueService.getTopServices(from, to, locationId, limit));
+    }
+
+    @GetMapping("/compare")
+    @Operation(summary = "Compare periods", description = "Compare a date range with the preceding range of the same length")
+    public ResponseEntity<RevenueComparisonResponse> compare(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) Long gymServiceId) {
+        return ResponseEntity.ok(revenueService.compare(from, to, locationId, gymServiceId));
+    }
+}
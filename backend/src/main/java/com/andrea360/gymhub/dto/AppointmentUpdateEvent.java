@@ -13,6 +13,7 @@ public class AppointmentUpdateEvent {
     private Long appointmentId;
     private Integer currentParticipants;
     private Integer maxCapacity;
-    private String eventType; // BOOKING_CREATED, BOOKING_CANCELLED
+    private Long viewers;
+    private String eventType; // BOOKING_CREATED, BOOKING_CANCELLED, VIEWERS_UPDATED
     private Long timestamp;
 }
\ No newline at end of file
@@ -15,6 +15,8 @@ public class AuthResponse {
 
     private String token;
 
+    private String refreshToken;
+
     @Builder.Default
     private String type = "Bearer";
 
@@ -0,0 +1,16 @@
+package com.andrea360.gymhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreditBalanceResponse {
+    private Long gymServiceId;
+    private String gymServiceName;
+    private Long availableCredits;
+}
@@ -0,0 +1,20 @@
+package com.andrea360.gymhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberNotificationEvent {
+    private Long memberId;
+    private String eventType; // BOOKING_CONFIRMED, BOOKING_CANCELLED, CREDITS_UPDATED
+    private Long bookingId;
+    private Long appointmentId;
+    private Long gymServiceId;
+    private Long availableCredits;
+    private Long timestamp;
+}
@@ -0,0 +1,28 @@
+package com.andrea360.gymhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentIntentRequest {
+
+    private Long amountCents;
+
+    private String currency;
+
+    private String description;
+
+    @Builder.Default
+    private Map<String, String> metadata = new HashMap<>();
+
+    // When set, the provider deduplicates the create call and it may be retried
+    private String idempotencyKey;
+}
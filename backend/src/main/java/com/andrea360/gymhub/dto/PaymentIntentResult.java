@@ -0,0 +1,21 @@
+package com.andrea360.gymhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentIntentResult {
+
+    private String id;
+
+    private String clientSecret;
+
+    private String status; // provider status, e.g. requires_payment_method, succeeded, canceled
+
+    private Long amountCents;
+}
@@ -0,0 +1,17 @@
+package com.andrea360.gymhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentPageResponse {
+    private List<PaymentResponse> items;
+    private String nextCursor; // null on the last page
+}
@@ -26,4 +26,12 @@ public class PaymentResponse {
     private Payment.PaymentStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime completedAt;
+
+    // Projection used by payment history queries; the client secret is never read back
+    public PaymentResponse(Long id, Long memberId, String memberName, Long gymServiceId, String gymServiceName,
+                           Integer quantity, BigDecimal amount, String stripePaymentIntentId,
+                           Payment.PaymentStatus status, LocalDateTime createdAt, LocalDateTime completedAt) {
+        this(id, memberId, memberName, gymServiceId, gymServiceName, quantity, amount, stripePaymentIntentId,
+                null, status, createdAt, completedAt);
+    }
 }
\ No newline at end of file
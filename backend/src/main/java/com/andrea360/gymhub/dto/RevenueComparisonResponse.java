@@ -0,0 +1,19 @@
+package com.andrea360.gymhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueComparisonResponse {
+    private RevenueReportResponse current;
+    private RevenueReportResponse previous;
+    private BigDecimal netChange;
+    private BigDecimal netChangePercent; // null when the previous period had no revenue
+}
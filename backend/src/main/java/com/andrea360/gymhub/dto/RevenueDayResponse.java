@@ -0,0 +1,22 @@
+package com.andrea360.gymhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueDayResponse {
+    private LocalDate day;
+    private BigDecimal grossAmount;
+    private BigDecimal refundedAmount;
+    private BigDecimal netAmount;
+    private Long payments;
+    private Long refunds;
+}
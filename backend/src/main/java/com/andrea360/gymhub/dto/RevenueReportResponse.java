@@ -0,0 +1,27 @@
+package com.andrea360.gymhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueReportResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private Long locationId;
+    private Long gymServiceId;
+    private BigDecimal grossAmount;
+    private BigDecimal refundedAmount;
+    private BigDecimal netAmount;
+    private Long payments;
+    private Long refunds;
+    private List<RevenueDayResponse> days;
+}
@@ -0,0 +1,24 @@
+package com.andrea360.gymhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ServiceRevenueResponse {
+    private Long gymServiceId;
+    private String gymServiceName;
+    private Long locationId;
+    private BigDecimal netAmount;
+    private Long payments;
+
+    public ServiceRevenueResponse(Long gymServiceId, Long locationId, BigDecimal netAmount, Long payments) {
+        this(gymServiceId, null, locationId, netAmount, payments);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -12,10 +13,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Entity representing a scheduled appointment/class session
+ * Entity representing a scheduled appointment/class session.
+ * On PostgreSQL the table is range-partitioned by month on start time.
  */
 @Entity
-@Table(name = "appointments")
+@Table(
+        name = "appointments",
+        indexes = {
+                @Index(name = "idx_appointment_end_time_id", columnList = "end_time, id"),
+                @Index(name = "idx_appointment_location_start", columnList = "location_id, start_time")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,7 +31,8 @@ import java.util.List;
 public class Appointment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Start time is required")
@@ -76,6 +85,12 @@ public class Appointment {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Defaults existing rows to 0 when ddl-auto adds the column
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Helper methods
     public boolean isFull() {
         return currentBookings >= maxCapacity;
@@ -0,0 +1,67 @@
+package com.andrea360.gymhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An appointment moved out of {@code appointments} by the archive job. Keeps
+ * its original id. Service and location names are copied in, so history
+ * still reads correctly after either is renamed or removed.
+ */
+@Entity
+@Table(
+        name = "appointments_archive",
+        indexes = {
+                @Index(name = "idx_appointment_archive_location_start", columnList = "location_id, start_time")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedAppointment {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(name = "location_id", nullable = false)
+    private Long locationId;
+
+    @Column(nullable = false)
+    private String locationName;
+
+    @Column(name = "gym_service_id", nullable = false)
+    private Long gymServiceId;
+
+    @Column(nullable = false)
+    private String gymServiceName;
+
+    @Column(nullable = false)
+    private Integer maxCapacity;
+
+    @Column(nullable = false)
+    private Integer currentBookings;
+
+    @Column(name = "created_by_user_id", nullable = false)
+    private Long createdById;
+
+    @Column(nullable = false)
+    private Boolean active;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,53 @@
+package com.andrea360.gymhub.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking moved out of {@code bookings} together with its appointment.
+ * Keeps its original id; the credit it used stays in {@code member_credits}.
+ */
+@Entity
+@Table(
+        name = "bookings_archive",
+        indexes = {
+                @Index(name = "idx_booking_archive_member", columnList = "member_id"),
+                @Index(name = "idx_booking_archive_appointment", columnList = "appointment_id")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedBooking {
+
+    @Id
+    private Long id;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    @Column(name = "member_id", nullable = false)
+    private Long memberId;
+
+    @Column(name = "used_credit_id", nullable = false)
+    private Long usedCreditId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Booking.BookingStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -15,8 +15,11 @@ import java.time.LocalDateTime;
         uniqueConstraints = {
                 @UniqueConstraint(
                         name = "uk_booking_appointment_member",
-                        columnNames = {"appointment_id", "member_id"}
+                        columnNames = {"appointment_id", "member_id", "appointment_start_time"}
                 )
+        },
+        indexes = {
+                @Index(name = "idx_booking_member_status", columnList = "member_id, status")
         }
 )
 @Data
@@ -26,13 +29,19 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id", nullable = false)
     private Appointment appointment;
 
+    // Partition key of bookings, copied from the appointment. The database
+    // cascades reschedules to it, so Hibernate never writes it after insert.
+    @Column(name = "appointment_start_time", nullable = false, updatable = false)
+    private LocalDateTime appointmentStartTime;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "member_id", nullable = false)
     private User member;
@@ -6,6 +6,8 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,6 +17,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "gym_services")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "gym-services")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,7 +26,8 @@ import java.time.LocalDateTime;
 public class GymService {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "gym_services_seq")
+    @SequenceGenerator(name = "gym_services_seq", sequenceName = "gym_services_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Service name is required")
@@ -30,7 +35,11 @@ public class GymService {
     @Column(nullable = false, length = 100)
     private String name;
 
+    // Only the service endpoints show it; loaded on first access
+    @Basic(fetch = FetchType.LAZY)
     @Column(length = 500)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String description;
 
     @NotNull(message = "Price is required")
@@ -0,0 +1,36 @@
+package com.andrea360.gymhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a chunked batch job: the last id it finished. Zero means the
+ * next run starts from the beginning. A job that must run on one instance
+ * at a time also holds a lease here while it runs.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String job;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastId = 0L;
+
+    // Held by the instance running the job until then; null when none is
+    private LocalDateTime leaseUntil;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -2,6 +2,7 @@ package com.andrea360.gymhub.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -16,7 +17,8 @@ import java.time.LocalDateTime;
 public class MemberCredit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_credits_seq")
+    @SequenceGenerator(name = "member_credits_seq", sequenceName = "member_credits_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -44,4 +46,10 @@ public class MemberCredit {
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime purchasedAt;
+
+    // Defaults existing rows to 0 when ddl-auto adds the column
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.andrea360.gymhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last outbox event id delivered to a consumer, and the retry state of the
+ * event after it while the consumer keeps failing on it
+ */
+@Entity
+@Table(name = "outbox_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String consumer;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastEventId = 0L;
+
+    // Event the consumer last failed on; retried until max-attempts, then dead-lettered
+    private Long failingEventId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
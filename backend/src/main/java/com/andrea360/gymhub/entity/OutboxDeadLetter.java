@@ -0,0 +1,57 @@
+package com.andrea360.gymhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox event a consumer kept failing on and was moved past. Holds a copy
+ * of the event, since delivered events are purged from the outbox, so it
+ * can be inspected and replayed by hand.
+ */
+@Entity
+@Table(name = "outbox_dead_letters", indexes = {
+        @Index(name = "idx_outbox_dead_letter_consumer", columnList = "consumer, event_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_dead_letters_seq")
+    @SequenceGenerator(name = "outbox_dead_letters_seq", sequenceName = "outbox_dead_letters_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String consumer;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, length = 50)
+    private String eventType;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    @ToString.Exclude
+    private String payload;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime deadLetteredAt;
+}
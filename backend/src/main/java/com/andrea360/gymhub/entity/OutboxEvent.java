@@ -0,0 +1,44 @@
+package com.andrea360.gymhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Domain event written in the same transaction as the state change it
+ * describes, and delivered to in-process consumers by the outbox relay.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    // No pooling: the relay reads in id order, so ids must follow insert
+    // order across instances rather than come from per-instance blocks
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, length = 50)
+    private String eventType;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    @ToString.Exclude
+    private String payload;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
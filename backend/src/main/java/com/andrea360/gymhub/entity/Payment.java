@@ -7,6 +7,7 @@ import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,7 +16,13 @@ import java.util.List;
  * Entity representing a payment transaction via Stripe
  */
 @Entity
-@Table(name = "payments")
+@Table(
+        name = "payments",
+        indexes = {
+                @Index(name = "idx_payment_member_created_id", columnList = "member_id, createdAt, id"),
+                @Index(name = "idx_payment_status_id", columnList = "status, id")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,7 +30,8 @@ import java.util.List;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -46,7 +54,8 @@ public class Payment {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
 
-    @Column(nullable = false, unique = true)
+    // Null while the payment is reserved and the intent is being created
+    @Column(unique = true)
     private String stripePaymentIntentId;
 
     @Enumerated(EnumType.STRING)
@@ -67,6 +76,19 @@ public class Payment {
     @Column
     private LocalDateTime completedAt;
 
+    // Set together with status REFUNDED, before PAYMENT_REFUNDED is published
+    @Column
+    private LocalDateTime refundedAt;
+
+    /**
+     * Day a refund counts against in the revenue rollups, for both the live
+     * consumer and the backfill. Refunds without a refundedAt fall back to
+     * the day the payment completed.
+     */
+    public LocalDate refundDay() {
+        return (refundedAt != null ? refundedAt : completedAt).toLocalDate();
+    }
+
     public enum PaymentStatus {
         PENDING,
         COMPLETED,
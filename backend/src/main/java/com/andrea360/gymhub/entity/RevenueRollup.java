@@ -0,0 +1,61 @@
+package com.andrea360.gymhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Revenue per location, service and day. Maintained incrementally from
+ * payment outbox events so reports never scan the payments table.
+ */
+@Entity
+@Table(
+        name = "revenue_rollups",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_revenue_rollup_location_service_day",
+                        columnNames = {"location_id", "gym_service_id", "revenue_date"}
+                )
+        },
+        indexes = {
+                @Index(name = "idx_revenue_rollup_day", columnList = "revenue_date")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revenue_rollups_seq")
+    @SequenceGenerator(name = "revenue_rollups_seq", sequenceName = "revenue_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "location_id", nullable = false)
+    private Long locationId;
+
+    @Column(name = "gym_service_id", nullable = false)
+    private Long gymServiceId;
+
+    @Column(name = "revenue_date", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long payments = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal grossAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long refunds = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+}
@@ -0,0 +1,37 @@
+package com.andrea360.gymhub.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id (jti) of a revoked JWT, kept until the token would have expired anyway
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_token_revoked_at", columnList = "revokedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Other instances pick up revocations by this
+    @Column(nullable = false)
+    private LocalDateTime revokedAt;
+
+    // Set when a refresh spent the token, as opposed to a logout revoking it
+    private LocalDateTime rotatedAt;
+}
@@ -0,0 +1,70 @@
+package com.andrea360.gymhub.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Raw Stripe webhook event, stored on receipt and processed asynchronously.
+ * The Stripe event id is the primary key, so redeliveries are deduplicated.
+ */
+@Entity
+@Table(name = "stripe_events", indexes = {
+        @Index(name = "idx_stripe_events_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StripeEvent {
+
+    @Id
+    @Column(length = 255)
+    private String id;
+
+    @Column(nullable = false, length = 100)
+    private String type;
+
+    @Column(length = 255)
+    private String paymentIntentId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    @ToString.Exclude
+    private String payload;
+
+    // Event creation time at Stripe (epoch seconds), used to process in order
+    @Column(nullable = false)
+    private Long stripeCreatedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StripeEventStatus status = StripeEventStatus.RECEIVED;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime receivedAt;
+
+    @Column
+    private LocalDateTime processedAt;
+
+    public enum StripeEventStatus {
+        RECEIVED,
+        PROCESSING,
+        PROCESSED,
+        IGNORED,
+        FAILED
+    }
+}
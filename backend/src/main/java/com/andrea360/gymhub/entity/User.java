@@ -14,6 +14,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email")
+}, indexes = {
+        @Index(name = "idx_user_updated_at", columnList = "updatedAt")
 })
 @Data
 @NoArgsConstructor
@@ -22,7 +24,8 @@ import java.time.LocalDateTime;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "First name is required")
@@ -41,8 +44,12 @@ public class User {
     @Column(nullable = false, unique = true, length = 100)
     private String email;
 
+    // Only login reads the hash; loaded on first access
     @NotBlank(message = "Password is required")
+    @Basic(fetch = FetchType.LAZY)
     @Column(nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private String password;
 
     @Enumerated(EnumType.STRING)
@@ -60,6 +67,11 @@ public class User {
     @JoinColumn(name = "location_id")
     private Location location;
 
+    // Bumped on role change or deactivation to invalidate tokens issued earlier
+    @Column(name = "token_version")
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
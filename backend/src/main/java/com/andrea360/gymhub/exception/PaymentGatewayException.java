@@ -0,0 +1,25 @@
+package com.andrea360.gymhub.exception;
+
+
+public class PaymentGatewayException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public PaymentGatewayException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public PaymentGatewayException(String message, Throwable cause, boolean retryable) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    /**
+     * Whether the provider may accept the same call later (timeouts,
+     * overload, open circuit), as opposed to rejecting the request itself.
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -1,27 +1,55 @@
 package com.andrea360.gymhub.repository;
 
 import com.andrea360.gymhub.entity.Appointment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
+    // The read endpoints show location, service and creator of each
+    // appointment, so those come in the same query
+    @Override
+    @EntityGraph(attributePaths = {"location", "gymService", "createdBy"})
+    List<Appointment> findAll();
+
+    @EntityGraph(attributePaths = {"location", "gymService", "createdBy"})
+    Optional<Appointment> findWithDetailsById(Long id);
+
     List<Appointment> findByLocationId(Long locationId);
     List<Appointment> findByGymServiceId(Long gymServiceId);
+    @EntityGraph(attributePaths = {"location", "gymService", "createdBy"})
     List<Appointment> findByLocationIdAndActive(Long locationId, Boolean active);
     @Query("SELECT a FROM Appointment a WHERE a.startTime >= :startTime AND a.endTime <= :endTime AND a.active = true")
     List<Appointment> findByTimeRange(@Param("startTime") LocalDateTime startTime,
                                       @Param("endTime") LocalDateTime endTime);
+    @EntityGraph(attributePaths = {"location", "gymService", "createdBy"})
     @Query("SELECT a FROM Appointment a WHERE a.location.id = :locationId AND a.startTime > :now AND a.active = true ORDER BY a.startTime")
     List<Appointment> findUpcomingByLocation(@Param("locationId") Long locationId,
                                              @Param("now") LocalDateTime now);
+    @EntityGraph(attributePaths = {"location", "gymService", "createdBy"})
     @Query("SELECT a FROM Appointment a WHERE a.currentBookings < a.maxCapacity AND a.startTime > :now AND a.active = true ORDER BY a.startTime")
     List<Appointment> findAvailableAppointments(@Param("now") LocalDateTime now);
     List<Appointment> findByCreatedById(Long employeeId);
+
+    // startTime is implied by endTime but lets PostgreSQL skip later partitions
+    @Query("SELECT a.id FROM Appointment a " +
+            "WHERE a.endTime < :before AND a.startTime < :before AND a.id > :afterId ORDER BY a.id")
+    List<Long> findIdsEndedBefore(@Param("before") LocalDateTime before,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Appointment a WHERE a.id IN :ids AND a.startTime < :before")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids, @Param("before") LocalDateTime before);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.entity.ArchivedAppointment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    /**
+     * Copies live appointments into the archive in one statement
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedAppointment (id, startTime, endTime, locationId, locationName, " +
+            "gymServiceId, gymServiceName, maxCapacity, currentBookings, createdById, active, " +
+            "createdAt, updatedAt, archivedAt) " +
+            "SELECT a.id, a.startTime, a.endTime, l.id, l.name, s.id, s.name, a.maxCapacity, " +
+            "a.currentBookings, a.createdBy.id, a.active, a.createdAt, a.updatedAt, :archivedAt " +
+            "FROM Appointment a JOIN a.location l JOIN a.gymService s " +
+            "WHERE a.id IN :ids")
+    int copyFromLive(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Query("SELECT a FROM ArchivedAppointment a " +
+            "WHERE a.locationId = :locationId " +
+            "AND a.startTime >= :from AND a.startTime < :to " +
+            "ORDER BY a.startTime")
+    List<ArchivedAppointment> findByLocationAndStartTimeRange(@Param("locationId") Long locationId,
+                                                              @Param("from") LocalDateTime from,
+                                                              @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,39 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.entity.ArchivedBooking;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    /**
+     * Copies the live bookings of the given appointments into the archive
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedBooking (id, appointmentId, memberId, usedCreditId, status, " +
+            "createdAt, cancelledAt, archivedAt) " +
+            "SELECT b.id, b.appointment.id, b.member.id, b.usedCredit.id, b.status, " +
+            "b.createdAt, b.cancelledAt, :archivedAt " +
+            "FROM Booking b WHERE b.appointment.id IN :appointmentIds")
+    int copyFromLive(@Param("appointmentIds") Collection<Long> appointmentIds,
+                     @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * A member's archived bookings with their appointments, most recent
+     * first, as (booking, appointment) pairs
+     */
+    @Query("SELECT b, a FROM ArchivedBooking b " +
+            "JOIN ArchivedAppointment a ON a.id = b.appointmentId " +
+            "WHERE b.memberId = :memberId " +
+            "ORDER BY a.startTime DESC, b.id DESC")
+    List<Object[]> findHistoryByMember(@Param("memberId") Long memberId, Pageable pageable);
+}
@@ -1,11 +1,15 @@
 package com.andrea360.gymhub.repository;
 
 import com.andrea360.gymhub.entity.Booking;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,17 +18,24 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     List<Booking> findByMemberId(Long memberId);
 
+    // The read endpoints show the appointment's time, service and location
+    // and the member's name, so those come in the same query
+    @EntityGraph(attributePaths = {"appointment.location", "appointment.gymService", "member"})
     List<Booking> findByAppointmentId(Long appointmentId);
 
+    @EntityGraph(attributePaths = {"appointment.location", "appointment.gymService", "member"})
     List<Booking> findByMemberIdAndStatus(Long memberId, Booking.BookingStatus status);
 
 
+    // The start time lets PostgreSQL prune to the appointment's partition
     @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Booking b " +
             "WHERE b.appointment.id = :appointmentId " +
+            "AND b.appointmentStartTime = :appointmentStartTime " +
             "AND b.member.id = :memberId " +
             "AND b.status = 'CONFIRMED'")
     Boolean existsByAppointmentIdAndMemberIdAndStatus(
             @Param("appointmentId") Long appointmentId,
+            @Param("appointmentStartTime") LocalDateTime appointmentStartTime,
             @Param("memberId") Long memberId);
 
     Optional<Booking> findByAppointmentIdAndMemberIdAndStatus(
@@ -42,4 +53,10 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE b.appointment.id = :appointmentId " +
             "AND b.status = 'CONFIRMED'")
     List<Booking> findConfirmedBookingsByAppointment(@Param("appointmentId") Long appointmentId);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.appointment.id IN :appointmentIds " +
+            "AND b.appointmentStartTime < :before")
+    int deleteByAppointmentIdIn(@Param("appointmentIds") Collection<Long> appointmentIds,
+                                @Param("before") LocalDateTime before);
+}
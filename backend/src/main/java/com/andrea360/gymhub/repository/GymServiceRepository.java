@@ -1,17 +1,33 @@
 package com.andrea360.gymhub.repository;
 
 import com.andrea360.gymhub.entity.GymService;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GymServiceRepository extends JpaRepository<GymService, Long> {
 
+    // The read endpoints show the lazily loaded description, the location
+    // and the creator; fetch them with the rows instead of one select each
+    @Override
+    @EntityGraph(attributePaths = {"description", "location", "createdBy"})
+    List<GymService> findAll();
+
+    @EntityGraph(attributePaths = {"description", "location", "createdBy"})
+    Optional<GymService> findWithDetailsById(Long id);
+
     List<GymService> findByLocationId(Long locationId);
+    @EntityGraph(attributePaths = {"description", "location", "createdBy"})
     List<GymService> findByLocationIdAndActive(Long locationId, Boolean active);
     List<GymService> findByActive(Boolean active);
     List<GymService> findByCreatedById(Long employeeId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Boolean existsByNameAndLocationId(String name, Long locationId);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.entity.JobCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+
+    /**
+     * Creates the job's checkpoint at zero unless it is already there. A
+     * concurrent insert of the same job waits for the first to commit and
+     * then inserts nothing.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO job_checkpoints (job, last_id, updated_at) "
+            + "VALUES (:job, 0, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("job") String job);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM JobCheckpoint c WHERE c.job = :job")
+    Optional<JobCheckpoint> findForUpdate(@Param("job") String job);
+}
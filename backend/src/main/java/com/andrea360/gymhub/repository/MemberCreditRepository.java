@@ -1,5 +1,6 @@
 package com.andrea360.gymhub.repository;
 
+import com.andrea360.gymhub.dto.CreditBalanceResponse;
 import com.andrea360.gymhub.entity.MemberCredit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -27,5 +28,10 @@ public interface MemberCreditRepository extends JpaRepository<MemberCredit, Long
     Long countUnusedCreditsByMemberAndService(@Param("memberId") Long memberId,
                                               @Param("serviceId") Long serviceId);
 
+    @Query("SELECT new com.andrea360.gymhub.dto.CreditBalanceResponse(mc.gymService.id, mc.gymService.name, COUNT(mc)) " +
+            "FROM MemberCredit mc WHERE mc.member.id = :memberId AND mc.used = false " +
+            "GROUP BY mc.gymService.id, mc.gymService.name ORDER BY mc.gymService.name")
+    List<CreditBalanceResponse> summarizeUnusedCreditsByMember(@Param("memberId") Long memberId);
+
     List<MemberCredit> findByPaymentId(Long paymentId);
 }
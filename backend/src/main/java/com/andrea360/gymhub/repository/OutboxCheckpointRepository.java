@@ -0,0 +1,22 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.entity.OutboxCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxCheckpointRepository extends JpaRepository<OutboxCheckpoint, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM OutboxCheckpoint c WHERE c.consumer = :consumer")
+    Optional<OutboxCheckpoint> findForUpdate(@Param("consumer") String consumer);
+
+    @Query("SELECT MIN(c.lastEventId) FROM OutboxCheckpoint c")
+    Optional<Long> findMinLastEventId();
+}
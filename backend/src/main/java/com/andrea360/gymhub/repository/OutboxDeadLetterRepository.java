@@ -0,0 +1,13 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.entity.OutboxDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {
+
+    List<OutboxDeadLetter> findByConsumer(String consumer);
+}
@@ -0,0 +1,27 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id > :afterId ORDER BY e.id")
+    List<OutboxEvent> findBatchAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT MAX(e.id) FROM OutboxEvent e")
+    Optional<Long> findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id <= :maxId AND e.createdAt < :before")
+    int deleteDelivered(@Param("maxId") Long maxId, @Param("before") LocalDateTime before);
+}
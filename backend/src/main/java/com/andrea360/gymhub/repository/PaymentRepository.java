@@ -1,12 +1,18 @@
 package com.andrea360.gymhub.repository;
 
+import com.andrea360.gymhub.dto.PaymentResponse;
 import com.andrea360.gymhub.entity.Payment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,15 +21,65 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
 
     Optional<Payment> findByStripePaymentIntentId(String stripePaymentIntentId);
-    List<Payment> findByMemberId(Long memberId);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.stripePaymentIntentId = :paymentIntentId")
+    Optional<Payment> findForUpdateByStripePaymentIntentId(@Param("paymentIntentId") String paymentIntentId);
+    @Modifying
+    @Query("UPDATE Payment p SET p.stripePaymentIntentId = :paymentIntentId WHERE p.id = :id AND p.status = 'PENDING' AND p.stripePaymentIntentId IS NULL")
+    int attachPaymentIntent(@Param("id") Long id, @Param("paymentIntentId") String paymentIntentId);
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = 'FAILED' WHERE p.id = :id AND p.status = 'PENDING' AND p.stripePaymentIntentId IS NULL")
+    int failReservation(@Param("id") Long id);
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = 'FAILED' WHERE p.status = 'PENDING' AND p.stripePaymentIntentId IS NULL AND p.createdAt < :before")
+    int failStaleReservations(@Param("before") LocalDateTime before);
+    /**
+     * Next chunk of (id, intent id) for PENDING payments with an intent,
+     * created before {@code before}, in id order after {@code afterId}.
+     */
+    @Query("SELECT p.id, p.stripePaymentIntentId FROM Payment p WHERE p.status = 'PENDING' AND p.stripePaymentIntentId IS NOT NULL " +
+            "AND p.createdAt < :before AND p.id > :afterId ORDER BY p.id")
+    List<Object[]> findPendingIntentsAfter(@Param("afterId") Long afterId,
+                                           @Param("before") LocalDateTime before,
+                                           Pageable pageable);
     List<Payment> findByMemberIdAndStatus(Long memberId, Payment.PaymentStatus status);
-    @Query("SELECT p FROM Payment p WHERE p.member.id = :memberId AND p.createdAt >= :startDate AND p.createdAt <= :endDate ORDER BY p.createdAt DESC")
-    List<Payment> findByMemberAndDateRange(@Param("memberId") Long memberId,
-                                           @Param("startDate") LocalDateTime startDate,
-                                           @Param("endDate") LocalDateTime endDate);
+    /**
+     * One keyset page of a member's payments, newest first, positioned
+     * strictly after ({@code afterCreatedAt}, {@code afterId}). The plain
+     * bound on createdAt repeats the OR so the index range scan can start at
+     * the cursor.
+     */
+    @Query("SELECT new com.andrea360.gymhub.dto.PaymentResponse(p.id, m.id, CONCAT(m.firstName, ' ', m.lastName), " +
+            "gs.id, gs.name, p.quantity, p.amount, p.stripePaymentIntentId, p.status, p.createdAt, p.completedAt) " +
+            "FROM Payment p JOIN p.member m JOIN p.gymService gs " +
+            "WHERE p.member.id = :memberId AND p.status IN :statuses " +
+            "AND p.createdAt >= :from AND p.createdAt < :to " +
+            "AND p.createdAt <= :afterCreatedAt " +
+            "AND (p.createdAt < :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id < :afterId)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PaymentResponse> findPageByMember(@Param("memberId") Long memberId,
+                                           @Param("statuses") Collection<Payment.PaymentStatus> statuses,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
     List<Payment> findByGymServiceId(Long gymServiceId);
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.gymService.id = :serviceId AND p.status = 'COMPLETED'")
-    Optional<Double> getTotalRevenueByService(@Param("serviceId") Long serviceId);
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.gymService.location.id = :locationId AND p.status = 'COMPLETED'")
-    Optional<Double> getTotalRevenueByLocation(@Param("locationId") Long locationId);
+    /**
+     * (location id, service id, day, count, amount) of completed payments,
+     * refunded ones included, by the day they completed.
+     */
+    @Query("SELECT p.gymService.location.id, p.gymService.id, CAST(p.completedAt AS LocalDate), COUNT(p), SUM(p.amount) " +
+            "FROM Payment p WHERE p.status IN ('COMPLETED', 'REFUNDED') AND p.completedAt IS NOT NULL " +
+            "GROUP BY p.gymService.location.id, p.gymService.id, CAST(p.completedAt AS LocalDate)")
+    List<Object[]> sumPaymentsByLocationServiceAndDay();
+    /**
+     * (location id, service id, day, count, amount) of refunds by
+     * {@link Payment#refundDay()}.
+     */
+    @Query("SELECT p.gymService.location.id, p.gymService.id, CAST(COALESCE(p.refundedAt, p.completedAt) AS LocalDate), " +
+            "COUNT(p), SUM(p.amount) " +
+            "FROM Payment p WHERE p.status = 'REFUNDED' AND p.completedAt IS NOT NULL " +
+            "GROUP BY p.gymService.location.id, p.gymService.id, CAST(COALESCE(p.refundedAt, p.completedAt) AS LocalDate)")
+    List<Object[]> sumRefundsByLocationServiceAndDay();
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.dto.RevenueDayResponse;
+import com.andrea360.gymhub.dto.ServiceRevenueResponse;
+import com.andrea360.gymhub.entity.RevenueRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, Long> {
+
+    @Modifying
+    @Query("UPDATE RevenueRollup r SET r.payments = r.payments + :payments, r.grossAmount = r.grossAmount + :grossAmount, " +
+            "r.refunds = r.refunds + :refunds, r.refundedAmount = r.refundedAmount + :refundedAmount " +
+            "WHERE r.locationId = :locationId AND r.gymServiceId = :gymServiceId AND r.day = :day")
+    int increment(@Param("locationId") Long locationId,
+                  @Param("gymServiceId") Long gymServiceId,
+                  @Param("day") LocalDate day,
+                  @Param("payments") Long payments,
+                  @Param("grossAmount") BigDecimal grossAmount,
+                  @Param("refunds") Long refunds,
+                  @Param("refundedAmount") BigDecimal refundedAmount);
+
+    @Query("SELECT new com.andrea360.gymhub.dto.RevenueDayResponse(r.day, SUM(r.grossAmount), SUM(r.refundedAmount), " +
+            "SUM(r.grossAmount) - SUM(r.refundedAmount), SUM(r.payments), SUM(r.refunds)) " +
+            "FROM RevenueRollup r WHERE r.day BETWEEN :from AND :to " +
+            "AND (:locationId IS NULL OR r.locationId = :locationId) " +
+            "AND (:gymServiceId IS NULL OR r.gymServiceId = :gymServiceId) " +
+            "GROUP BY r.day ORDER BY r.day")
+    List<RevenueDayResponse> findDaily(@Param("from") LocalDate from,
+                                       @Param("to") LocalDate to,
+                                       @Param("locationId") Long locationId,
+                                       @Param("gymServiceId") Long gymServiceId);
+
+    @Query("SELECT new com.andrea360.gymhub.dto.ServiceRevenueResponse(r.gymServiceId, r.locationId, " +
+            "SUM(r.grossAmount) - SUM(r.refundedAmount), SUM(r.payments)) " +
+            "FROM RevenueRollup r WHERE r.day BETWEEN :from AND :to " +
+            "AND (:locationId IS NULL OR r.locationId = :locationId) " +
+            "GROUP BY r.gymServiceId, r.locationId " +
+            "ORDER BY SUM(r.grossAmount) - SUM(r.refundedAmount) DESC")
+    List<ServiceRevenueResponse> findTopServices(@Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to,
+                                                 @Param("locationId") Long locationId,
+                                                 Pageable pageable);
+}
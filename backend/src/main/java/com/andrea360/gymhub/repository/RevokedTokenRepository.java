@@ -0,0 +1,36 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime since, LocalDateTime now);
+
+    /**
+     * Inserts the id unless it is already there; returns 1 if this call
+     * inserted it. A concurrent insert of the same id waits for the first
+     * to commit and then inserts nothing.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (jti, expires_at, revoked_at, rotated_at) "
+            + "VALUES (:jti, :expiresAt, :revokedAt, :rotatedAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti,
+                       @Param("expiresAt") LocalDateTime expiresAt,
+                       @Param("revokedAt") LocalDateTime revokedAt,
+                       @Param("rotatedAt") LocalDateTime rotatedAt);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,43 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.entity.StripeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StripeEventRepository extends JpaRepository<StripeEvent, String> {
+
+    @Query("SELECT e.id FROM StripeEvent e " +
+            "WHERE e.status IN ('RECEIVED', 'PROCESSING') AND e.nextAttemptAt <= :now " +
+            "ORDER BY e.stripeCreatedAt")
+    List<String> findDueEventIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claims the event for one worker by moving its next attempt past the
+     * lease. Returns 0 if another worker already holds it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE StripeEvent e SET e.status = 'PROCESSING', e.attempts = e.attempts + 1, e.nextAttemptAt = :leaseUntil " +
+            "WHERE e.id = :id AND e.status IN ('RECEIVED', 'PROCESSING') AND e.nextAttemptAt <= :now")
+    int claim(@Param("id") String id,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StripeEvent e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error " +
+            "WHERE e.id = :id")
+    int markForRetry(@Param("id") String id,
+                     @Param("status") StripeEvent.StripeEventStatus status,
+                     @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                     @Param("error") String error);
+}
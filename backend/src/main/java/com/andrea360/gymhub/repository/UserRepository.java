@@ -2,9 +2,12 @@ package com.andrea360.gymhub.repository;
 
 import com.andrea360.gymhub.entity.Role;
 import com.andrea360.gymhub.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,12 +15,20 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Responses built from these show the user's location name
+    @EntityGraph(attributePaths = "location")
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
+    @EntityGraph(attributePaths = "location")
     List<User> findByRole(Role role);
     List<User> findByLocationId(Long locationId);
+    @EntityGraph(attributePaths = "location")
     List<User> findByLocationIdAndRole(Long locationId, Role role);
     List<User> findByActive(Boolean active);
+    @EntityGraph(attributePaths = "location")
     List<User> findAllByRoleAndLocationId(Role role, Long locationId);
+    @Query("SELECT u FROM User u WHERE u.active = false OR u.tokenVersion > 0")
+    List<User> findWithRevokedTokens();
+    List<User> findByUpdatedAtAfter(LocalDateTime since);
 
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.andrea360.gymhub.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,55 +14,139 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_LOCATION_ID = "loc";
+    public static final String CLAIM_VERSION = "ver";
+    public static final String CLAIM_TYPE = "typ";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
 
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpirationMs;
+
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // SHA-256 digest of the raw token -> claims, so repeat requests skip HMAC verification
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
 
     public String generateToken(Authentication authentication) {
-        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-        return generateTokenFromEmail(userPrincipal.getEmail());
+        return generateToken((UserDetailsImpl) authentication.getPrincipal());
     }
 
-    public String generateTokenFromEmail(String email) {
+    public String generateToken(UserDetailsImpl user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
-                .subject(email)
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_LOCATION_ID, user.getLocationId())
+                .claim(CLAIM_VERSION, user.getTokenVersion())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Long-lived token that can only be exchanged at /auth/refresh; it is
+     * never accepted as an access token.
+     */
+    public String generateRefreshToken(UserDetailsImpl user) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + refreshExpirationMs);
 
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_VERSION, user.getTokenVersion())
+                .claim(CLAIM_TYPE, TOKEN_TYPE_REFRESH)
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(signingKey)
+                .compact();
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
+        return TOKEN_TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class));
+    }
+
+    /**
+     * Verifies the token and returns its claims, or {@code null} if the token
+     * is invalid or expired. Recently verified tokens are served from a
+     * bounded cache until they expire.
+     */
+    public Claims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
+
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached.claims();
+        }
 
+        Claims claims = verify(token);
+        if (claims != null && claims.getExpiration() != null) {
+            verifiedTokens.put(digest, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    public String getEmailFromToken(String token) {
+        Claims claims = parseToken(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
         return claims.getSubject();
     }
 
     public boolean validateToken(String authToken) {
+        return parseToken(authToken) != null;
+    }
+
+    private Claims verify(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (SecurityException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -69,13 +157,41 @@ public class JwtUtil {
             logger.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record VerifiedToken(Claims claims, long expiresAtMillis) {
+    }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Each entry lives until its token expires
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+            long remainingMillis = token.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+package com.andrea360.gymhub.security;
+
+import com.andrea360.gymhub.config.RateLimitProperties;
+import com.andrea360.gymhub.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * API-wide rate limiter. Each route rule gets one token bucket per
+ * authenticated user, or per client IP for anonymous requests. Buckets live
+ * in a ConcurrentHashMap, so contention is limited to a single bin and
+ * bucket, and idle buckets are evicted periodically.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getServletPath();
+        RateLimitProperties.Rule rule = findRule(request.getMethod(), path);
+
+        String route = rule != null ? routeName(rule) : DEFAULT_ROUTE;
+        int capacity = rule != null ? rule.getCapacity() : properties.getDefaultLimit().getCapacity();
+        double refill = rule != null ? rule.getRefillPerSecond() : properties.getDefaultLimit().getRefillPerSecond();
+
+        TokenBucket bucket = buckets.computeIfAbsent(route + "|" + clientKey(request),
+                key -> new TokenBucket(capacity, refill));
+
+        if (bucket.tryConsume()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejectionCounters.computeIfAbsent(route, name -> Counter.builder("gymhub.ratelimit.rejected")
+                        .description("Requests rejected by the API rate limiter")
+                        .tag("route", name)
+                        .register(meterRegistry))
+                .increment();
+        logger.warn("Rate limit exceeded on {} for {}", route, clientKey(request));
+
+        GlobalExceptionHandler.ErrorResponse error = new GlobalExceptionHandler.ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                "Rate limit exceeded. Please slow down."
+        );
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, bucket.secondsUntilAvailable())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return properties.getExcludedPaths().stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void evictIdleBuckets() {
+        long cutoff = System.nanoTime() - properties.getIdleEviction().toNanos();
+        buckets.values().removeIf(bucket -> bucket.isIdleSince(cutoff));
+    }
+
+    private RateLimitProperties.Rule findRule(String method, String path) {
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            boolean methodMatches = rule.getMethod() == null || rule.getMethod().equalsIgnoreCase(method);
+            if (methodMatches && pathMatcher.match(rule.getPath(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private String routeName(RateLimitProperties.Rule rule) {
+        return (rule.getMethod() != null ? rule.getMethod().toUpperCase() : "*") + " " + rule.getPath();
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return "user:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
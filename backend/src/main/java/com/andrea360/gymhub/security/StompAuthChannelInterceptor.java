@@ -0,0 +1,83 @@
+package com.andrea360.gymhub.security;
+
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Authenticates STOMP sessions from the JWT sent in the CONNECT frame.
+ * The principal set on CONNECT is kept by the STOMP handler for the whole
+ * session, so later frames are not re-validated.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthChannelInterceptor.class);
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsServiceImpl userDetailsService;
+
+    public StompAuthChannelInterceptor(JwtUtil jwtUtil, UserDetailsServiceImpl userDetailsService) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String jwt = parseJwt(accessor);
+        if (jwt == null) {
+            // Anonymous sessions may still subscribe to public /topic destinations
+            return message;
+        }
+
+        Claims claims = jwtUtil.parseToken(jwt);
+        if (claims == null) {
+            throw new MessagingException("Invalid JWT token on STOMP CONNECT");
+        }
+
+        String email = claims.getSubject();
+        UserDetails userDetails = userDetailsService.loadUserFromClaims(claims);
+        if (userDetails == null) {
+            throw new MessagingException("Revoked JWT token on STOMP CONNECT");
+        }
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+
+        accessor.setUser(authentication);
+        logger.debug("STOMP session {} authenticated as {}", accessor.getSessionId(), email);
+
+        return message;
+    }
+
+    private String parseJwt(StompHeaderAccessor accessor) {
+        String headerAuth = accessor.getFirstNativeHeader("Authorization");
+
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.andrea360.gymhub.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Decides what a STOMP session may subscribe to, using the principal set by
+ * {@link StompAuthChannelInterceptor} on CONNECT:
+ * <ul>
+ *   <li>{@code /topic/appointments} and {@code /topic/appointments/{id}}
+ *   are public;</li>
+ *   <li>{@code /user/queue/**} needs an authenticated session, and only
+ *   ever reaches that session's own user;</li>
+ *   <li>everything else is refused, including the broker's resolved
+ *   {@code /queue/*-user{session}} destinations.</li>
+ * </ul>
+ * Clients only listen: a SEND straight to a broker destination would go out
+ * to every subscriber, so SEND is only accepted for {@code /app}.
+ */
+@Component
+public class StompSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompSubscriptionInterceptor.class);
+
+    private static final Pattern PUBLIC_TOPIC = Pattern.compile("^/topic/appointments(/\\d+)?$");
+    private static final Pattern USER_QUEUE = Pattern.compile("^/user/queue/[\\w-]+$");
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            if (!canSubscribe(destination, accessor.getUser() != null)) {
+                logger.warn("STOMP session {} refused subscription to {}", accessor.getSessionId(), destination);
+                throw new MessagingException("Not allowed to subscribe to " + destination);
+            }
+        } else if (StompCommand.SEND.equals(accessor.getCommand())) {
+            if (destination == null || !destination.startsWith("/app/")) {
+                throw new MessagingException("Not allowed to send to " + destination);
+            }
+        }
+        return message;
+    }
+
+    private static boolean canSubscribe(String destination, boolean authenticated) {
+        if (destination == null) {
+            return false;
+        }
+        if (PUBLIC_TOPIC.matcher(destination).matches()) {
+            return true;
+        }
+        return authenticated && USER_QUEUE.matcher(destination).matches();
+    }
+}
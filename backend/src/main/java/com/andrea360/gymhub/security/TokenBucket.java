@@ -0,0 +1,54 @@
+package com.andrea360.gymhub.security;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills
+ * continuously at {@code refillPerSecond}.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long lastAccessNanos;
+
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.lastAccessNanos = lastRefillNanos;
+    }
+
+    public synchronized boolean tryConsume() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Seconds until the next token is available, rounded up.
+     */
+    public synchronized long secondsUntilAvailable() {
+        refill();
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / refillPerNano / 1_000_000_000d);
+    }
+
+    public boolean isIdleSince(long nanoTime) {
+        return lastAccessNanos < nanoTime;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+        lastAccessNanos = now;
+    }
+}
@@ -0,0 +1,170 @@
+package com.andrea360.gymhub.security;
+
+import com.andrea360.gymhub.entity.RevokedToken;
+import com.andrea360.gymhub.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token ids (jti). Lookups hit a Bloom filter first, so the common
+ * case of a token that was never revoked costs a few bit reads. The exact
+ * set is only consulted on a Bloom match. Entries are persisted in
+ * revoked_tokens, loaded at startup and then polled for, so a token revoked
+ * on another instance is rejected here within {@code poll-interval-ms}.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private final Duration pollLookback;
+
+    // jti -> expiry (epoch millis)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    // Revocations up to here have been loaded; null until the first load
+    private volatile LocalDateTime syncedAt;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               @Value("${jwt.revocation.expected-entries:100000}") int expectedEntries,
+                               @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${jwt.revocation.poll-lookback:1m}") Duration pollLookback) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.pollLookback = pollLookback;
+        this.bloomFilter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByExpiresAtAfter(now)
+                .forEach(token -> revoked.put(token.getJti(), toEpochMillis(token.getExpiresAt())));
+        rebuildBloomFilter();
+        syncedAt = now;
+        logger.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    /**
+     * Picks up revocations made on other instances. Each poll reaches
+     * {@code poll-lookback} behind the previous one, so a revocation that
+     * committed a while after its revoked_at, or reached a lagging replica
+     * late, is still seen.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime since = syncedAt;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since.minus(pollLookback), now)
+                .forEach(token -> remember(token.getJti(), token.getExpiresAt()));
+        syncedAt = now;
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    @Transactional
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        if (jti == null || revoked.containsKey(jti)) {
+            return;
+        }
+
+        if (revokedTokenRepository.insertIfAbsent(jti, expiresAt, LocalDateTime.now(), null) == 1) {
+            rememberAfterCommit(jti, expiresAt);
+        }
+    }
+
+    /**
+     * Spends a refresh token. Returns false if it was already spent or
+     * revoked; the insert is atomic, so of two concurrent refreshes with the
+     * same token exactly one gets true.
+     */
+    @Transactional
+    public boolean claimForRotation(String jti, LocalDateTime expiresAt) {
+        LocalDateTime now = LocalDateTime.now();
+        if (revokedTokenRepository.insertIfAbsent(jti, expiresAt, now, now) == 0) {
+            return false;
+        }
+        rememberAfterCommit(jti, expiresAt);
+        return true;
+    }
+
+    /**
+     * When a refresh spent the token, or empty if it is unknown or was
+     * revoked on logout.
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> rotatedAt(String jti) {
+        return revokedTokenRepository.findById(jti).map(RevokedToken::getRotatedAt);
+    }
+
+    /**
+     * Adds the id to the in-memory set once the revocation has committed, so
+     * a rolled back revocation never rejects a token.
+     */
+    private void rememberAfterCommit(String jti, LocalDateTime expiresAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(jti, expiresAt);
+                }
+            });
+        } else {
+            remember(jti, expiresAt);
+        }
+    }
+
+    private void remember(String jti, LocalDateTime expiresAt) {
+        revoked.put(jti, toEpochMillis(expiresAt));
+        bloomFilter.put(jti);
+    }
+
+    @Scheduled(fixedRateString = "${jwt.revocation.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        rebuildBloomFilter();
+        logger.info("Purged {} expired revoked tokens, {} remaining", deleted, revoked.size());
+    }
+
+    private void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        // Second pass picks up ids revoked while the new filter was being filled
+        revoked.keySet().forEach(rebuilt::put);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,110 @@
+package com.andrea360.gymhub.security;
+
+import com.andrea360.gymhub.entity.User;
+import com.andrea360.gymhub.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of users whose earlier tokens are no longer valid.
+ * Only deactivated users and users with a bumped token version are kept,
+ * so request authentication never needs a database lookup. Users updated
+ * on other instances are polled for by updated_at.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    private final UserRepository userRepository;
+    private final Duration pollLookback;
+
+    private final Map<Long, Integer> currentVersions = new ConcurrentHashMap<>();
+    private final Set<Long> deactivatedUsers = ConcurrentHashMap.newKeySet();
+    // Users updated up to here have been loaded; null until the first load
+    private volatile LocalDateTime syncedAt;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${jwt.revocation.poll-lookback:1m}") Duration pollLookback) {
+        this.userRepository = userRepository;
+        this.pollLookback = pollLookback;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.findWithRevokedTokens().forEach(this::record);
+        syncedAt = now;
+        logger.info("Loaded token versions for {} users ({} deactivated)",
+                currentVersions.size(), deactivatedUsers.size());
+    }
+
+    /**
+     * Picks up token version bumps and deactivations made on other
+     * instances, reaching {@code poll-lookback} behind the previous poll as
+     * {@link TokenRevocationList#poll()} does.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime since = syncedAt;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.findByUpdatedAtAfter(since.minus(pollLookback)).forEach(this::record);
+        syncedAt = now;
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        if (deactivatedUsers.contains(userId)) {
+            return false;
+        }
+        return tokenVersion >= currentVersions.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Invalidates every token issued to the user so far, here once the
+     * current transaction commits and elsewhere at their next poll. The
+     * caller is responsible for saving the user.
+     */
+    public void revokeTokens(User user) {
+        int current = user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+        user.setTokenVersion(current + 1);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(user);
+                }
+            });
+        } else {
+            record(user);
+        }
+    }
+
+    public void record(User user) {
+        if (Boolean.FALSE.equals(user.getActive())) {
+            deactivatedUsers.add(user.getId());
+        } else {
+            deactivatedUsers.remove(user.getId());
+        }
+
+        if (user.getTokenVersion() != null && user.getTokenVersion() > 0) {
+            // A poll may read an older row than one already recorded
+            currentVersions.merge(user.getId(), user.getTokenVersion(), Math::max);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.andrea360.gymhub.security;
 import com.andrea360.gymhub.entity.Role;
 import com.andrea360.gymhub.entity.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.jsonwebtoken.Claims;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
@@ -27,17 +28,57 @@ public class UserDetailsImpl implements UserDetails {
     private Role role;
     private Long locationId;
     private Boolean active;
+    private Integer tokenVersion;
 
     public static UserDetailsImpl build(User user) {
+        return build(user, user.getPassword());
+    }
+
+    /**
+     * Principal for issuing tokens, which never carry the password; leaves
+     * the lazily loaded hash untouched.
+     */
+    public static UserDetailsImpl withoutPassword(User user) {
+        return build(user, null);
+    }
+
+    private static UserDetailsImpl build(User user, String password) {
         return new UserDetailsImpl(
                 user.getId(),
                 user.getFirstName(),
                 user.getLastName(),
                 user.getEmail(),
-                user.getPassword(),
+                password,
                 user.getRole(),
                 user.getLocation() != null ? user.getLocation().getId() : null,
-                user.getActive()
+                user.getActive(),
+                user.getTokenVersion() != null ? user.getTokenVersion() : 0
+        );
+    }
+
+    /**
+     * Rebuilds the principal from the claims of a verified token without a
+     * database lookup. Returns {@code null} for tokens issued before these
+     * claims existed.
+     */
+    public static UserDetailsImpl fromClaims(Claims claims) {
+        Long id = claims.get(JwtUtil.CLAIM_USER_ID, Long.class);
+        String role = claims.get(JwtUtil.CLAIM_ROLE, String.class);
+        if (id == null || role == null) {
+            return null;
+        }
+
+        Integer version = claims.get(JwtUtil.CLAIM_VERSION, Integer.class);
+        return new UserDetailsImpl(
+                id,
+                null,
+                null,
+                claims.getSubject(),
+                null,
+                Role.valueOf(role),
+                claims.get(JwtUtil.CLAIM_LOCATION_ID, Long.class),
+                true,
+                version != null ? version : 0
         );
     }
 
@@ -2,6 +2,9 @@ package com.andrea360.gymhub.security;
 
 import com.andrea360.gymhub.entity.User;
 import com.andrea360.gymhub.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -11,10 +14,18 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
+
     private final UserRepository userRepository;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationList tokenRevocationList;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  TokenVersionRegistry tokenVersionRegistry,
+                                  TokenRevocationList tokenRevocationList) {
         this.userRepository = userRepository;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
@@ -25,4 +36,28 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds the principal for a verified token straight from its claims.
+     * Returns {@code null} for refresh tokens, revoked tokens, deactivated
+     * users and outdated token versions. Tokens without the user claims fall
+     * back to a lookup.
+     */
+    public UserDetails loadUserFromClaims(Claims claims) {
+        if (JwtUtil.isRefreshToken(claims) || tokenRevocationList.isRevoked(claims.getId())) {
+            return null;
+        }
+
+        UserDetailsImpl userDetails = UserDetailsImpl.fromClaims(claims);
+        if (userDetails == null) {
+            return loadUserByUsername(claims.getSubject());
+        }
+
+        if (!tokenVersionRegistry.isCurrent(userDetails.getId(), userDetails.getTokenVersion())) {
+            logger.warn("Rejected revoked token for user {}", userDetails.getId());
+            return null;
+        }
+
+        return userDetails;
+    }
+}
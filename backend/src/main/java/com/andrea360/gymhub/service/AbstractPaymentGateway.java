@@ -0,0 +1,185 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.config.PaymentGatewayProperties;
+import com.andrea360.gymhub.dto.PaymentIntentRequest;
+import com.andrea360.gymhub.dto.PaymentIntentResult;
+import com.andrea360.gymhub.exception.PaymentGatewayException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resilience shared by all payment providers. Calls run on a bounded pool
+ * (a full pool fails fast rather than queueing request threads), each
+ * attempt is capped by {@code call-timeout}, provider-side failures feed a
+ * circuit breaker, and idempotent calls are retried with full-jitter
+ * exponential backoff. Subclasses only implement the raw provider calls.
+ */
+abstract class AbstractPaymentGateway implements PaymentGateway, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractPaymentGateway.class);
+
+    private final String provider;
+    private final PaymentGatewayProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker circuitBreaker;
+
+    protected AbstractPaymentGateway(String provider, PaymentGatewayProperties properties, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getThreads(),
+                properties.getThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> new Thread(runnable, "payment-gateway-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.circuitBreaker = new CircuitBreaker(
+                properties.getCircuitBreaker().getFailureThreshold(),
+                properties.getCircuitBreaker().getOpenDuration().toNanos()
+        );
+
+        Gauge.builder("gymhub.payment.gateway.circuit.open", circuitBreaker,
+                        breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while the payment gateway circuit breaker is open or half-open")
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public PaymentIntentResult createPaymentIntent(PaymentIntentRequest request) {
+        // Creating an intent is only safe to repeat when the provider can deduplicate it
+        boolean idempotent = request.getIdempotencyKey() != null;
+        return execute("create", idempotent, () -> doCreatePaymentIntent(request));
+    }
+
+    @Override
+    public PaymentIntentResult retrievePaymentIntent(String paymentIntentId) {
+        return execute("retrieve", true, () -> doRetrievePaymentIntent(paymentIntentId));
+    }
+
+    @Override
+    public PaymentIntentResult cancelPaymentIntent(String paymentIntentId) {
+        return execute("cancel", true, () -> doCancelPaymentIntent(paymentIntentId));
+    }
+
+    protected abstract PaymentIntentResult doCreatePaymentIntent(PaymentIntentRequest request) throws Exception;
+
+    protected abstract PaymentIntentResult doRetrievePaymentIntent(String paymentIntentId) throws Exception;
+
+    protected abstract PaymentIntentResult doCancelPaymentIntent(String paymentIntentId) throws Exception;
+
+    /**
+     * Whether a provider failure is transient (network error, timeout,
+     * overload, 5xx) rather than a rejection of the request itself.
+     */
+    protected abstract boolean isTransient(Exception e);
+
+    private <T> T execute(String operation, boolean idempotent, Callable<T> call) {
+        int maxAttempts = idempotent ? Math.max(1, properties.getMaxAttempts()) : 1;
+        long start = System.nanoTime();
+
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                record(operation, "circuit_open", start);
+                throw new PaymentGatewayException("Payment provider is temporarily unavailable", true);
+            }
+
+            Future<T> future;
+            try {
+                future = executor.submit(call);
+            } catch (RejectedExecutionException e) {
+                circuitBreaker.release();
+                record(operation, "bulkhead_full", start);
+                throw new PaymentGatewayException("Payment provider is busy, please try again", true);
+            }
+
+            Exception failure;
+            boolean transientFailure;
+            try {
+                T result = future.get(properties.getCallTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                circuitBreaker.recordSuccess();
+                record(operation, "success", start);
+                return result;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failure = e;
+                transientFailure = true;
+            } catch (ExecutionException e) {
+                failure = e.getCause() instanceof Exception cause ? cause : e;
+                transientFailure = isTransient(failure);
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                circuitBreaker.release();
+                Thread.currentThread().interrupt();
+                throw new PaymentGatewayException("Interrupted while calling payment provider", e, true);
+            }
+
+            if (transientFailure) {
+                circuitBreaker.recordFailure();
+            } else {
+                // The provider answered; it just did not like the request
+                circuitBreaker.recordSuccess();
+            }
+
+            if (!transientFailure || attempt >= maxAttempts) {
+                record(operation, transientFailure ? "failure" : "rejected", start);
+                logger.warn("{} {} failed after {} attempt(s): {}", provider, operation, attempt, failure.toString());
+                throw transientFailure
+                        ? new PaymentGatewayException("Payment provider is temporarily unavailable", failure, true)
+                        : new PaymentGatewayException("Payment provider rejected the request", failure, false);
+            }
+
+            long backoffMs = backoffMillis(attempt);
+            logger.info("{} {} attempt {} failed ({}), retrying in {}ms",
+                    provider, operation, attempt, failure.toString(), backoffMs);
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentGatewayException("Interrupted while calling payment provider", e, true);
+            }
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(properties.getBackoffMax().toMillis(),
+                properties.getBackoffBase().toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private void record(String operation, String outcome, long startNanos) {
+        Timer.builder("gymhub.payment.gateway.calls")
+                .description("Payment gateway calls including retries")
+                .tag("provider", provider)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
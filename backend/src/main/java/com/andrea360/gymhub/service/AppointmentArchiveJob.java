@@ -0,0 +1,159 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.entity.JobCheckpoint;
+import com.andrea360.gymhub.repository.AppointmentRepository;
+import com.andrea360.gymhub.repository.ArchivedAppointmentRepository;
+import com.andrea360.gymhub.repository.ArchivedBookingRepository;
+import com.andrea360.gymhub.repository.BookingRepository;
+import com.andrea360.gymhub.repository.JobCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves appointments that ended more than {@code horizon} ago, with their
+ * bookings, from the live tables into {@code appointments_archive} and
+ * {@code bookings_archive}. Live queries and indexes then only carry recent
+ * and upcoming sessions; history endpoints read the archive.
+ * <p>
+ * Each chunk is copied and deleted in one transaction together with the
+ * checkpoint, so a row is always in exactly one place. A restarted instance
+ * resumes after the last committed chunk; the checkpoint goes back to zero
+ * when a run reaches the end.
+ */
+@Component
+public class AppointmentArchiveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentArchiveJob.class);
+
+    static final String JOB_NAME = "appointment-archive";
+
+    private final AppointmentRepository appointmentRepository;
+    private final BookingRepository bookingRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter archivedAppointments;
+    private final Counter archivedBookings;
+
+    private final boolean enabled;
+    private final Duration horizon;
+    private final int chunkSize;
+
+    public AppointmentArchiveJob(AppointmentRepository appointmentRepository,
+                                 BookingRepository bookingRepository,
+                                 ArchivedAppointmentRepository archivedAppointmentRepository,
+                                 ArchivedBookingRepository archivedBookingRepository,
+                                 JobCheckpointRepository jobCheckpointRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${gymhub.archive.enabled:true}") boolean enabled,
+                                 @Value("${gymhub.archive.horizon:90d}") Duration horizon,
+                                 @Value("${gymhub.archive.chunk-size:500}") int chunkSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.bookingRepository = bookingRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.archivedAppointments = archivedCounter(meterRegistry, "appointments");
+        this.archivedBookings = archivedCounter(meterRegistry, "bookings");
+        this.enabled = enabled;
+        this.horizon = horizon;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${gymhub.archive.interval-ms:3600000}",
+            initialDelayString = "${gymhub.archive.initial-delay-ms:120000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime before = LocalDateTime.now().minus(horizon);
+        long afterId = jobCheckpointRepository.findById(JOB_NAME).map(JobCheckpoint::getLastId).orElse(0L);
+        if (afterId > 0) {
+            logger.info("Resuming appointment archival after appointment {}", afterId);
+        }
+
+        int appointments = 0;
+        int bookings = 0;
+        while (true) {
+            List<Long> ids = appointmentRepository.findIdsEndedBefore(before, afterId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            long lastId = ids.get(ids.size() - 1);
+            try {
+                int moved = transactionTemplate.execute(status -> move(ids, before, lastId));
+                archivedAppointments.increment(ids.size());
+                archivedBookings.increment(moved);
+                bookings += moved;
+            } catch (RuntimeException e) {
+                // Nothing of the chunk was moved; retry from the checkpoint next run
+                logger.error("Archiving appointments {}..{} failed: {}", ids.get(0), lastId, e.getMessage());
+                return;
+            }
+            appointments += ids.size();
+            afterId = lastId;
+
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> saveCheckpoint(0L));
+        if (appointments > 0) {
+            logger.info("Archived {} appointments and {} bookings that ended before {}", appointments, bookings, before);
+        }
+    }
+
+    /**
+     * Copies then deletes one chunk; bookings go first on delete because
+     * they reference the appointment. Returns the number of bookings moved.
+     */
+    private int move(List<Long> appointmentIds, LocalDateTime before, long lastId) {
+        LocalDateTime archivedAt = LocalDateTime.now();
+
+        int appointments = archivedAppointmentRepository.copyFromLive(appointmentIds, archivedAt);
+        int bookings = archivedBookingRepository.copyFromLive(appointmentIds, archivedAt);
+
+        int deletedBookings = bookingRepository.deleteByAppointmentIdIn(appointmentIds, before);
+        int deletedAppointments = appointmentRepository.deleteByIdIn(appointmentIds, before);
+        if (deletedBookings != bookings || deletedAppointments != appointments) {
+            // A booking or appointment changed between copy and delete; leave the chunk in place
+            throw new IllegalStateException("Copied " + appointments + "/" + bookings
+                    + " but deleted " + deletedAppointments + "/" + deletedBookings);
+        }
+
+        saveCheckpoint(lastId);
+        return bookings;
+    }
+
+    private void saveCheckpoint(long lastId) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> JobCheckpoint.builder().job(JOB_NAME).build());
+        checkpoint.setLastId(lastId);
+        jobCheckpointRepository.save(checkpoint);
+    }
+
+    private static Counter archivedCounter(MeterRegistry meterRegistry, String table) {
+        return Counter.builder("gymhub.archive.rows")
+                .description("Rows moved from the live tables into the archive")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+}
@@ -3,12 +3,14 @@ package com.andrea360.gymhub.service;
 import com.andrea360.gymhub.dto.AppointmentResponse;
 import com.andrea360.gymhub.dto.CreateAppointmentRequest;
 import com.andrea360.gymhub.entity.Appointment;
+import com.andrea360.gymhub.entity.ArchivedAppointment;
 import com.andrea360.gymhub.entity.GymService;
 import com.andrea360.gymhub.entity.Location;
 import com.andrea360.gymhub.entity.User;
 import com.andrea360.gymhub.exception.BadRequestException;
 import com.andrea360.gymhub.exception.ResourceNotFoundException;
 import com.andrea360.gymhub.repository.AppointmentRepository;
+import com.andrea360.gymhub.repository.ArchivedAppointmentRepository;
 import com.andrea360.gymhub.repository.GymServiceRepository;
 import com.andrea360.gymhub.repository.LocationRepository;
 import com.andrea360.gymhub.repository.UserRepository;
@@ -18,8 +20,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,10 +33,14 @@ public class AppointmentService {
 
     private static final Logger logger = LoggerFactory.getLogger(AppointmentService.class);
 
+    private static final long MAX_HISTORY_DAYS = 366;
+
     private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
     private final LocationRepository locationRepository;
     private final GymServiceRepository gymServiceRepository;
     private final UserRepository userRepository;
+    private final OptimisticLockRetry optimisticLockRetry;
 
     @Transactional
     public AppointmentResponse createAppointment(CreateAppointmentRequest request, Long employeeId) {
@@ -68,38 +77,71 @@ public class AppointmentService {
         return mapToResponse(appointment);
     }
 
+    @Transactional(readOnly = true)
     public List<AppointmentResponse> getAllAppointments() {
         return appointmentRepository.findAll().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<AppointmentResponse> getAppointmentsByLocation(Long locationId) {
         return appointmentRepository.findByLocationIdAndActive(locationId, true).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<AppointmentResponse> getUpcomingAppointments(Long locationId) {
         return appointmentRepository.findUpcomingByLocation(locationId, LocalDateTime.now()).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<AppointmentResponse> getAvailableAppointments() {
         return appointmentRepository.findAvailableAppointments(LocalDateTime.now()).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public AppointmentResponse getAppointmentById(Long id) {
-        Appointment appointment = appointmentRepository.findById(id)
+        Appointment appointment = appointmentRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
         return mapToResponse(appointment);
     }
 
-    @Transactional
+    /**
+     * Archived appointments at a location that started within the given
+     * dates, inclusive. Live appointments are not included.
+     */
+    @Transactional(readOnly = true)
+    public List<AppointmentResponse> getAppointmentHistory(Long locationId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_HISTORY_DAYS) {
+            throw new BadRequestException("Date range must not exceed " + MAX_HISTORY_DAYS + " days");
+        }
+
+        List<ArchivedAppointment> archived = archivedAppointmentRepository.findByLocationAndStartTimeRange(
+                locationId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+
+        Map<Long, String> creators = userRepository.findAllById(
+                        archived.stream().map(ArchivedAppointment::getCreatedById).distinct().toList()).stream()
+                .collect(Collectors.toMap(User::getId, User::getFullName));
+
+        return archived.stream()
+                .map(appointment -> mapToResponse(appointment, creators.get(appointment.getCreatedById())))
+                .collect(Collectors.toList());
+    }
+
     public AppointmentResponse updateAppointment(Long id, CreateAppointmentRequest request) {
+        return optimisticLockRetry.execute("appointment.update", () -> doUpdateAppointment(id, request));
+    }
+
+    private AppointmentResponse doUpdateAppointment(Long id, CreateAppointmentRequest request) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
 
@@ -115,8 +157,11 @@ public class AppointmentService {
         return mapToResponse(appointment);
     }
 
-    @Transactional
     public void cancelAppointment(Long id) {
+        optimisticLockRetry.run("appointment.cancel", () -> doCancelAppointment(id));
+    }
+
+    private void doCancelAppointment(Long id) {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
 
@@ -148,4 +193,25 @@ public class AppointmentService {
                 .updatedAt(appointment.getUpdatedAt())
                 .build();
     }
-}
\ No newline at end of file
+
+    private AppointmentResponse mapToResponse(ArchivedAppointment appointment, String createdByName) {
+        return AppointmentResponse.builder()
+                .id(appointment.getId())
+                .startTime(appointment.getStartTime())
+                .endTime(appointment.getEndTime())
+                .locationId(appointment.getLocationId())
+                .locationName(appointment.getLocationName())
+                .gymServiceId(appointment.getGymServiceId())
+                .gymServiceName(appointment.getGymServiceName())
+                .maxCapacity(appointment.getMaxCapacity())
+                .currentBookings(appointment.getCurrentBookings())
+                .availableSpots(appointment.getMaxCapacity() - appointment.getCurrentBookings())
+                .isFull(appointment.getCurrentBookings() >= appointment.getMaxCapacity())
+                .createdById(appointment.getCreatedById())
+                .createdByName(createdByName)
+                .active(appointment.getActive())
+                .createdAt(appointment.getCreatedAt())
+                .updatedAt(appointment.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,206 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.dto.AppointmentUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Approximate "people viewing" counter per appointment.
+ * Views are kept in memory as a ring of HyperLogLog sketches, one per time
+ * slice, so the count covers a sliding window and memory stays fixed per
+ * appointment no matter how many viewers there are.
+ */
+@Service
+public class AppointmentViewerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentViewerService.class);
+
+    private static final Pattern APPOINTMENT_TOPIC = Pattern.compile("^/topic/appointments/(\\d+)$");
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final long sliceMillis;
+    private final int sliceCount;
+    private final int precision;
+    private final int maxTrackedAppointments;
+
+    private final Map<Long, ViewerWindow> windows = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastPublished = new ConcurrentHashMap<>();
+
+    // sessionId -> (subscriptionId -> subscription); live subscribers are re-counted every tick
+    private final Map<String, Map<String, Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    public AppointmentViewerService(SimpMessagingTemplate messagingTemplate,
+                                    @Value("${gymhub.viewers.slice-seconds:10}") long sliceSeconds,
+                                    @Value("${gymhub.viewers.slices:6}") int sliceCount,
+                                    @Value("${gymhub.viewers.precision:10}") int precision,
+                                    @Value("${gymhub.viewers.max-appointments:10000}") int maxTrackedAppointments) {
+        this.messagingTemplate = messagingTemplate;
+        this.sliceMillis = sliceSeconds * 1000;
+        this.sliceCount = sliceCount;
+        this.precision = precision;
+        this.maxTrackedAppointments = maxTrackedAppointments;
+    }
+
+    public void recordView(Long appointmentId, String viewerKey) {
+        ViewerWindow window = windows.get(appointmentId);
+        if (window == null) {
+            if (windows.size() >= maxTrackedAppointments) {
+                return;
+            }
+            window = windows.computeIfAbsent(appointmentId, id -> new ViewerWindow(sliceCount, precision));
+        }
+        window.offer(currentSlice(), viewerKey);
+    }
+
+    public long getViewerCount(Long appointmentId) {
+        ViewerWindow window = windows.get(appointmentId);
+        return window != null ? window.estimate(currentSlice()) : 0;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Long appointmentId = parseAppointmentId(accessor.getDestination());
+        if (appointmentId == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        String viewerKey = accessor.getUser() != null
+                ? accessor.getUser().getName()
+                : "session:" + accessor.getSessionId();
+
+        subscriptions.computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), new Subscription(appointmentId, viewerKey));
+        recordView(appointmentId, viewerKey);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        Map<String, Subscription> sessionSubscriptions = subscriptions.get(accessor.getSessionId());
+        if (sessionSubscriptions != null) {
+            sessionSubscriptions.remove(accessor.getSubscriptionId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        subscriptions.remove(event.getSessionId());
+    }
+
+    @Scheduled(fixedRateString = "${gymhub.viewers.publish-interval-ms:5000}")
+    public void publishViewerCounts() {
+        long slice = currentSlice();
+
+        subscriptions.values().forEach(sessionSubscriptions ->
+                sessionSubscriptions.values().forEach(subscription ->
+                        recordView(subscription.appointmentId(), subscription.viewerKey())));
+
+        windows.forEach((appointmentId, window) -> {
+            long viewers = window.estimate(slice);
+
+            if (viewers == 0) {
+                windows.remove(appointmentId);
+                Long previous = lastPublished.remove(appointmentId);
+                if (previous != null && previous > 0) {
+                    publish(appointmentId, 0);
+                }
+                return;
+            }
+
+            Long previous = lastPublished.put(appointmentId, viewers);
+            if (previous == null || previous != viewers) {
+                publish(appointmentId, viewers);
+            }
+        });
+    }
+
+    private void publish(Long appointmentId, long viewers) {
+        AppointmentUpdateEvent event = AppointmentUpdateEvent.builder()
+                .appointmentId(appointmentId)
+                .viewers(viewers)
+                .eventType("VIEWERS_UPDATED")
+                .timestamp(System.currentTimeMillis())
+                .build();
+
+        try {
+            messagingTemplate.convertAndSend("/topic/appointments/" + appointmentId, event);
+        } catch (Exception e) {
+            logger.warn("Failed to send viewer update for appointment {}: {}", appointmentId, e.getMessage());
+        }
+    }
+
+    private long currentSlice() {
+        return System.currentTimeMillis() / sliceMillis;
+    }
+
+    private Long parseAppointmentId(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        Matcher matcher = APPOINTMENT_TOPIC.matcher(destination);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    private record Subscription(Long appointmentId, String viewerKey) {
+    }
+
+    /**
+     * Ring of per-slice sketches. A slot is cleared lazily when its slice
+     * number is reused, so expired views drop out of the window on their own.
+     */
+    private static final class ViewerWindow {
+
+        private final HyperLogLog[] sketches;
+        private final long[] sliceIds;
+
+        ViewerWindow(int sliceCount, int precision) {
+            this.sketches = new HyperLogLog[sliceCount];
+            this.sliceIds = new long[sliceCount];
+            for (int i = 0; i < sliceCount; i++) {
+                sketches[i] = new HyperLogLog(precision);
+                sliceIds[i] = -1;
+            }
+        }
+
+        synchronized void offer(long slice, String viewerKey) {
+            int slot = (int) (slice % sketches.length);
+            if (sliceIds[slot] != slice) {
+                sketches[slot].clear();
+                sliceIds[slot] = slice;
+            }
+            sketches[slot].offer(viewerKey);
+        }
+
+        synchronized long estimate(long slice) {
+            byte[] merged = new byte[sketches[0].registerCount()];
+            boolean any = false;
+            for (int i = 0; i < sketches.length; i++) {
+                if (sliceIds[i] >= 0 && slice - sliceIds[i] < sketches.length) {
+                    sketches[i].mergeInto(merged);
+                    any = true;
+                }
+            }
+            return any ? HyperLogLog.estimate(merged) : 0;
+        }
+    }
+}
@@ -9,12 +9,18 @@ import com.andrea360.gymhub.entity.Role;
 import com.andrea360.gymhub.entity.User;
 import com.andrea360.gymhub.exception.BadRequestException;
 import com.andrea360.gymhub.exception.ResourceNotFoundException;
+import com.andrea360.gymhub.exception.UnauthorizedException;
 import com.andrea360.gymhub.repository.LocationRepository;
 import com.andrea360.gymhub.repository.UserRepository;
 import com.andrea360.gymhub.security.JwtUtil;
+import com.andrea360.gymhub.security.TokenRevocationList;
+import com.andrea360.gymhub.security.TokenVersionRegistry;
+import com.andrea360.gymhub.security.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -22,6 +28,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -46,6 +57,15 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Value("${jwt.refresh-grace:10s}")
+    private Duration refreshGrace;
+
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         logger.info("Registering new user with email: {}", request.getEmail());
@@ -77,21 +97,12 @@ public class AuthService {
         user = userRepository.save(user);
         logger.info("User registered successfully with id: {}", user.getId());
 
-        String token = jwtUtil.generateTokenFromEmail(user.getEmail());
-
-        return AuthResponse.builder()
-                .token(token)
-                .userId(user.getId())
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .role(user.getRole())
-                .locationId(location != null ? location.getId() : null)
-                .locationName(location != null ? location.getName() : null)
-                .build();
+        return buildAuthResponse(user);
     }
 
 
+    // Not transactional, so no connection is held while the password hash
+    // is checked; the lookups below run in their own short transactions
     public AuthResponse login(LoginRequest request) {
         logger.info("User login attempt with email: {}", request.getEmail());
 
@@ -105,25 +116,63 @@ public class AuthService {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        String token = jwtUtil.generateToken(authentication);
-
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
         logger.info("User logged in successfully: {}", user.getEmail());
 
-        return AuthResponse.builder()
-                .token(token)
-                .userId(user.getId())
-                .email(user.getEmail())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .role(user.getRole())
-                .locationId(user.getLocation() != null ? user.getLocation().getId() : null)
-                .locationName(user.getLocation() != null ? user.getLocation().getName() : null)
-                .build();
+        return buildAuthResponse(user);
     }
 
+    /**
+     * Exchanges a refresh token for a new access/refresh pair. The presented
+     * refresh token is spent, so each one can be used only once; presenting
+     * it again revokes every token of that user. Within
+     * {@code jwt.refresh-grace} of the first use it is taken for a
+     * concurrent refresh from another tab and gets a pair of its own.
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public AuthResponse refresh(String refreshToken) {
+        Claims claims = jwtUtil.parseToken(refreshToken);
+        if (claims == null || !JwtUtil.isRefreshToken(claims)) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+
+        User user = userRepository.findByEmail(claims.getSubject())
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+
+        Integer version = claims.get(JwtUtil.CLAIM_VERSION, Integer.class);
+        if (!Boolean.TRUE.equals(user.getActive())
+                || !tokenVersionRegistry.isCurrent(user.getId(), version != null ? version : 0)) {
+            throw new UnauthorizedException("Refresh token has been revoked");
+        }
+
+        if (!tokenRevocationList.claimForRotation(claims.getId(), toLocalDateTime(claims.getExpiration()))) {
+            LocalDateTime rotatedAt = tokenRevocationList.rotatedAt(claims.getId()).orElse(null);
+            if (rotatedAt == null || rotatedAt.isBefore(LocalDateTime.now().minus(refreshGrace))) {
+                logger.warn("Refresh token reuse detected for user {}, revoking all tokens", user.getId());
+                tokenVersionRegistry.revokeTokens(user);
+                userRepository.save(user);
+                throw new UnauthorizedException("Refresh token has already been used");
+            }
+            logger.info("Refresh token of user {} reused within the grace period", user.getId());
+        }
+
+        logger.info("Tokens refreshed for user: {}", user.getId());
+        return buildAuthResponse(user);
+    }
+
+    @Transactional
+    public void logout(String refreshToken, String accessToken) {
+        for (String token : new String[]{refreshToken, accessToken}) {
+            Claims claims = token != null ? jwtUtil.parseToken(token) : null;
+            if (claims != null) {
+                tokenRevocationList.revoke(claims.getId(), toLocalDateTime(claims.getExpiration()));
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
     public UserResponse getCurrentUser(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -142,6 +191,27 @@ public class AuthService {
                 .build();
     }
 
+    private AuthResponse buildAuthResponse(User user) {
+        UserDetailsImpl principal = UserDetailsImpl.withoutPassword(user);
+
+        return AuthResponse.builder()
+                .token(jwtUtil.generateToken(principal))
+                .refreshToken(jwtUtil.generateRefreshToken(principal))
+                .userId(user.getId())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole())
+                .locationId(user.getLocation() != null ? user.getLocation().getId() : null)
+                .locationName(user.getLocation() != null ? user.getLocation().getName() : null)
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    @Transactional(readOnly = true)
     public List<UserResponse> getMembersByLocation(Long locationId) {
         return userRepository.findAllByRoleAndLocationId(Role.MEMBER, locationId)
                 .stream()
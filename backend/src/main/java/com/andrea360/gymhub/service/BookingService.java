@@ -4,24 +4,33 @@ import com.andrea360.gymhub.dto.AppointmentUpdateEvent;
 import com.andrea360.gymhub.dto.BookingResponse;
 import com.andrea360.gymhub.dto.CreateBookingRequest;
 import com.andrea360.gymhub.entity.Appointment;
+import com.andrea360.gymhub.entity.ArchivedAppointment;
+import com.andrea360.gymhub.entity.ArchivedBooking;
 import com.andrea360.gymhub.entity.Booking;
 import com.andrea360.gymhub.entity.MemberCredit;
 import com.andrea360.gymhub.entity.User;
 import com.andrea360.gymhub.exception.BadRequestException;
 import com.andrea360.gymhub.exception.ResourceNotFoundException;
 import com.andrea360.gymhub.repository.AppointmentRepository;
+import com.andrea360.gymhub.repository.ArchivedBookingRepository;
 import com.andrea360.gymhub.repository.BookingRepository;
 import com.andrea360.gymhub.repository.MemberCreditRepository;
 import com.andrea360.gymhub.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,14 +39,27 @@ public class BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final AppointmentRepository appointmentRepository;
     private final MemberCreditRepository memberCreditRepository;
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
-
-    @Transactional
+    private final OutboxService outboxService;
+    private final CreditBalanceCache creditBalanceCache;
+    private final OptimisticLockRetry optimisticLockRetry;
+
+    /**
+     * Concurrent bookings of the same appointment or credit conflict on
+     * their versions; the loser re-runs with fresh capacity and credits.
+     */
     public BookingResponse createBooking(CreateBookingRequest request, Long memberId) {
+        return optimisticLockRetry.execute("booking.create", () -> doCreateBooking(request, memberId));
+    }
+
+    private BookingResponse doCreateBooking(CreateBookingRequest request, Long memberId) {
         logger.info("Creating booking for member: {} and appointment: {}", memberId, request.getAppointmentId());
 
         Appointment appointment = appointmentRepository.findById(request.getAppointmentId())
@@ -52,6 +74,7 @@ public class BookingService {
 
         Boolean alreadyBooked = bookingRepository.existsByAppointmentIdAndMemberIdAndStatus(
                 appointment.getId(),
+                appointment.getStartTime(),
                 memberId
         );
 
@@ -77,75 +100,83 @@ public class BookingService {
 
         Booking booking = Booking.builder()
                 .appointment(appointment)
+                .appointmentStartTime(appointment.getStartTime())
                 .member(member)
                 .usedCredit(credit)
                 .status(Booking.BookingStatus.CONFIRMED)
                 .build();
 
         try {
-            booking = bookingRepository.save(booking);
+            // Flushed here: with sequence ids the INSERT would otherwise wait for
+            // commit, past this catch (e.g. re-booking after a cancellation
+            // hits uk_booking_appointment_member)
+            booking = bookingRepository.saveAndFlush(booking);
             logger.info("Booking saved with id: {}", booking.getId());
-        } catch (Exception e) {
+        } catch (DataIntegrityViolationException e) {
             logger.error("Failed to save booking: {}", e.getMessage(), e);
             throw new BadRequestException("Failed to create booking. Please try again.");
         }
 
-        try {
-            credit.setUsed(true);
-            credit.setUsedAt(LocalDateTime.now());
-            memberCreditRepository.save(credit);
-            logger.info("Credit marked as used: {}", credit.getId());
-        } catch (Exception e) {
-            logger.error("Failed to mark credit as used: {}", e.getMessage(), e);
-            appointment.decrementBookings();
-            appointmentRepository.save(appointment);
-            bookingRepository.delete(booking);
-            throw new BadRequestException("Failed to process credit. Booking cancelled.");
-        }
-
-
-        try {
-            appointment.incrementBookings();
-            appointmentRepository.save(appointment);
-            logger.info("Appointment bookings updated: {}/{}",
-                    appointment.getCurrentBookings(),
-                    appointment.getMaxCapacity());
-        } catch (Exception e) {
-            logger.error("Failed to update appointment bookings: {}", e.getMessage(), e);
-
-            credit.setUsed(false);
-            credit.setUsedAt(null);
-            memberCreditRepository.save(credit);
-            bookingRepository.delete(booking);
-            throw new BadRequestException("Failed to update appointment. Booking cancelled.");
-        }
+        credit.setUsed(true);
+        credit.setUsedAt(LocalDateTime.now());
+        memberCreditRepository.save(credit);
+        logger.info("Credit marked as used: {}", credit.getId());
+        creditBalanceCache.invalidateAfterCommit(memberId);
 
+        appointment.incrementBookings();
+        appointmentRepository.save(appointment);
+        logger.info("Appointment bookings updated: {}/{}",
+                appointment.getCurrentBookings(),
+                appointment.getMaxCapacity());
 
-        try {
-            sendAppointmentUpdate(appointment, "BOOKING_CREATED");
-        } catch (Exception e) {
-            logger.warn("Failed to send WebSocket update: {}", e.getMessage());
+        sendAppointmentUpdateAfterCommit(appointment, "BOOKING_CREATED");
 
-        }
+        publishBookingEvent(booking, OutboxService.BOOKING_CONFIRMED);
 
         logger.info("✅ Booking successfully created with id: {}", booking.getId());
         return mapToResponse(booking);
     }
 
+    @Transactional(readOnly = true)
     public List<BookingResponse> getMyBookings(Long memberId) {
         return bookingRepository.findByMemberIdAndStatus(memberId, Booking.BookingStatus.CONFIRMED).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The member's archived bookings, most recent appointment first. Bookings
+     * still in the live tables come from {@link #getMyBookings}.
+     */
+    @Transactional(readOnly = true)
+    public List<BookingResponse> getMyBookingHistory(Long memberId, int page, int size) {
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+
+        User member = userRepository.findById(memberId)
+                .orElseThrow(() -> new ResourceNotFoundException("Member not found"));
+
+        return archivedBookingRepository.findHistoryByMember(memberId, PageRequest.of(page, size)).stream()
+                .map(row -> mapToResponse((ArchivedBooking) row[0], (ArchivedAppointment) row[1], member))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
     public List<BookingResponse> getAppointmentBookings(Long appointmentId) {
         return bookingRepository.findByAppointmentId(appointmentId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
-    @Transactional
     public void cancelBooking(Long bookingId, Long memberId) {
+        optimisticLockRetry.run("booking.cancel", () -> doCancelBooking(bookingId, memberId));
+    }
+
+    private void doCancelBooking(Long bookingId, Long memberId) {
         logger.info("Cancelling booking: {} for member: {}", bookingId, memberId);
 
         Booking booking = bookingRepository.findById(bookingId)
@@ -173,6 +204,7 @@ public class BookingService {
         credit.setUsedAt(null);
         memberCreditRepository.save(credit);
         logger.info("Credit returned to member: {}", credit.getId());
+        creditBalanceCache.invalidateAfterCommit(memberId);
 
 
         Appointment appointment = booking.getAppointment();
@@ -182,16 +214,18 @@ public class BookingService {
                 appointment.getCurrentBookings(),
                 appointment.getMaxCapacity());
 
-        try {
-            sendAppointmentUpdate(appointment, "BOOKING_CANCELLED");
-        } catch (Exception e) {
-            logger.warn("Failed to send WebSocket update: {}", e.getMessage());
-        }
+        sendAppointmentUpdateAfterCommit(appointment, "BOOKING_CANCELLED");
+
+        publishBookingEvent(booking, OutboxService.BOOKING_CANCELLED);
 
         logger.info("✅ Booking successfully cancelled: {}", bookingId);
     }
 
-    private void sendAppointmentUpdate(Appointment appointment, String eventType) {
+    /**
+     * Sends once the transaction commits, so a retried or rolled back
+     * attempt never broadcasts counts that did not happen.
+     */
+    private void sendAppointmentUpdateAfterCommit(Appointment appointment, String eventType) {
         AppointmentUpdateEvent event = AppointmentUpdateEvent.builder()
                 .appointmentId(appointment.getId())
                 .currentParticipants(appointment.getCurrentBookings())
@@ -200,18 +234,42 @@ public class BookingService {
                 .timestamp(System.currentTimeMillis())
                 .build();
 
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    sendAppointmentUpdate(event);
+                } catch (Exception e) {
+                    logger.warn("Failed to send WebSocket update: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void sendAppointmentUpdate(AppointmentUpdateEvent event) {
         messagingTemplate.convertAndSend(
-                "/topic/appointments/" + appointment.getId(),
+                "/topic/appointments/" + event.getAppointmentId(),
                 event
         );
 
         messagingTemplate.convertAndSend("/topic/appointments", event);
 
         logger.info("📡 WebSocket update sent - Appointment {}: {} (participants: {}/{})",
-                appointment.getId(),
-                eventType,
-                appointment.getCurrentBookings(),
-                appointment.getMaxCapacity());
+                event.getAppointmentId(),
+                event.getEventType(),
+                event.getCurrentParticipants(),
+                event.getMaxCapacity());
+    }
+
+    private void publishBookingEvent(Booking booking, String eventType) {
+        Appointment appointment = booking.getAppointment();
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("memberId", booking.getMember().getId());
+        payload.put("memberEmail", booking.getMember().getEmail());
+        payload.put("appointmentId", appointment.getId());
+        payload.put("gymServiceId", appointment.getGymService().getId());
+        payload.put("creditId", booking.getUsedCredit().getId());
+        outboxService.publish("Booking", booking.getId(), eventType, payload);
     }
 
     private BookingResponse mapToResponse(Booking booking) {
@@ -229,4 +287,20 @@ public class BookingService {
                 .cancelledAt(booking.getCancelledAt())
                 .build();
     }
-}
\ No newline at end of file
+
+    private BookingResponse mapToResponse(ArchivedBooking booking, ArchivedAppointment appointment, User member) {
+        return BookingResponse.builder()
+                .id(booking.getId())
+                .appointmentId(appointment.getId())
+                .appointmentStartTime(appointment.getStartTime())
+                .appointmentEndTime(appointment.getEndTime())
+                .serviceName(appointment.getGymServiceName())
+                .locationName(appointment.getLocationName())
+                .memberId(member.getId())
+                .memberName(member.getFullName())
+                .status(booking.getStatus())
+                .createdAt(booking.getCreatedAt())
+                .cancelledAt(booking.getCancelledAt())
+                .build();
+    }
+}
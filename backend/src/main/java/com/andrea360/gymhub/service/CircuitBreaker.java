@@ -0,0 +1,67 @@
+package com.andrea360.gymhub.service;
+
+/**
+ * Consecutive-failure circuit breaker. Opens after {@code failureThreshold}
+ * failures in a row, rejects calls while open, then lets a single probe
+ * through; the probe's outcome closes or re-opens the circuit.
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openNanos;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    synchronized void recordFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Gives back a permit for a call that never reached the provider.
+     */
+    synchronized void release() {
+        probeInFlight = false;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,114 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.dto.CreditBalanceResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-member cache of credit balances. Writers invalidate after their
+ * transaction commits, here and, through {@link CreditBalanceInvalidations},
+ * on every other instance. Every load and invalidation takes a sequence
+ * number, and a load only stores its result if no later invalidation has
+ * been recorded, so a read that raced a commit cannot put a stale balance
+ * back. Entries also expire after {@code ttl} as a safety net.
+ */
+@Component
+public class CreditBalanceCache {
+
+    private record Entry(List<CreditBalanceResponse> balances, long sequence, long createdNanos) {
+    }
+
+    private final long ttlNanos;
+    private final AtomicLong sequence = new AtomicLong();
+    // Sequence of the last invalidateAll; loads that started before it are not stored
+    private final AtomicLong clearedSequence = new AtomicLong();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private final CreditBalanceInvalidations invalidations;
+
+    public CreditBalanceCache(@Value("${gymhub.credits.cache-ttl:10m}") Duration ttl,
+                              CreditBalanceInvalidations invalidations,
+                              MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.invalidations = invalidations;
+        invalidations.subscribe(memberId -> {
+            if (memberId != null) {
+                invalidate(memberId);
+            } else {
+                invalidateAll();
+            }
+        });
+        this.hits = Counter.builder("gymhub.credits.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("gymhub.credits.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    public List<CreditBalanceResponse> get(Long memberId, Supplier<List<CreditBalanceResponse>> loader) {
+        Entry entry = entries.get(memberId);
+        if (entry != null && entry.balances() != null && !isExpired(entry, System.nanoTime())) {
+            hits.increment();
+            return entry.balances();
+        }
+
+        misses.increment();
+        long loadSequence = sequence.incrementAndGet();
+        List<CreditBalanceResponse> balances = List.copyOf(loader.get());
+        entries.compute(memberId, (id, current) ->
+                (current != null && current.sequence() > loadSequence) || clearedSequence.get() > loadSequence
+                        ? current
+                        : new Entry(balances, loadSequence, System.nanoTime()));
+        return balances;
+    }
+
+    /**
+     * Invalidates the member's balances once the current transaction
+     * commits, or immediately when there is none, on all instances.
+     */
+    public void invalidateAfterCommit(Long memberId) {
+        invalidations.publish(memberId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(memberId);
+                }
+            });
+        } else {
+            invalidate(memberId);
+        }
+    }
+
+    public void invalidate(Long memberId) {
+        // The marker outranks loads that started earlier
+        entries.put(memberId, new Entry(null, sequence.incrementAndGet(), System.nanoTime()));
+    }
+
+    public void invalidateAll() {
+        clearedSequence.set(sequence.incrementAndGet());
+        entries.clear();
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> isExpired(entry, now));
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdNanos() > ttlNanos;
+    }
+}
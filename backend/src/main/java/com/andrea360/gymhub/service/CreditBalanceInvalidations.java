@@ -0,0 +1,149 @@
+package com.andrea360.gymhub.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Carries credit balance invalidations to every instance through
+ * PostgreSQL LISTEN/NOTIFY. A notification sent inside the writer's
+ * transaction is delivered only if it commits, and only after it commits.
+ * <p>
+ * Each instance listens on a connection of its own, outside the pool and
+ * always on the primary. Notifications sent while that connection is down
+ * are lost, so after every (re)connect subscribers are told to drop
+ * everything ({@code null} member id). On other databases invalidations
+ * stay local to the instance.
+ */
+@Component
+public class CreditBalanceInvalidations implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditBalanceInvalidations.class);
+
+    static final String CHANNEL = "credit_balances";
+    private static final int POLL_MS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+    private final long reconnectDelayMs;
+
+    private final List<Consumer<Long>> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private Thread listener;
+
+    public CreditBalanceInvalidations(JdbcTemplate jdbcTemplate,
+                                      DataSourceProperties dataSourceProperties,
+                                      @Value("${gymhub.credits.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = dataSourceProperties.determineUrl();
+        this.username = dataSourceProperties.determineUsername();
+        this.password = dataSourceProperties.determinePassword();
+        this.enabled = url != null && url.startsWith("jdbc:postgresql:");
+        this.reconnectDelayMs = reconnectDelay.toMillis();
+    }
+
+    /**
+     * Registers a callback for invalidations from any instance; a
+     * {@code null} member id means all members.
+     */
+    public void subscribe(Consumer<Long> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Tells every instance the member's balances changed. Inside a
+     * transaction the notification goes out when it commits.
+     */
+    public void publish(Long memberId) {
+        if (enabled) {
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, String.valueOf(memberId));
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "credit-balance-invalidations");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            try {
+                listener.join(POLL_MS * 2L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Whatever was sent before LISTEN took effect is gone
+                deliver(null);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(Long.valueOf(notification.getParameter()));
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    logger.warn("Credit balance invalidation listener lost its connection, retrying in {} ms: {}",
+                            reconnectDelayMs, e.getMessage());
+                    sleep();
+                }
+            }
+        }
+    }
+
+    private void deliver(Long memberId) {
+        logger.debug("Credit balances invalidated for member {}", memberId != null ? memberId : "(all)");
+        subscribers.forEach(subscriber -> subscriber.accept(memberId));
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(reconnectDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.config.PaymentGatewayProperties;
+import com.andrea360.gymhub.dto.PaymentIntentRequest;
+import com.andrea360.gymhub.dto.PaymentIntentResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory gateway for local runs and load tests. Simulates provider
+ * latency and injects failures and hangs at configurable rates, so the
+ * timeout, retry and circuit breaker paths can be exercised without network.
+ * Intents stay in {@code requires_payment_method} unless {@code settle-after}
+ * is set, in which case they report {@code succeeded} once that old.
+ */
+@Service
+@ConditionalOnProperty(name = "gymhub.payment-gateway.provider", havingValue = "fake")
+public class FakePaymentGateway extends AbstractPaymentGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(FakePaymentGateway.class);
+
+    private final PaymentGatewayProperties.Fake settings;
+    private final long hangMillis;
+
+    private final Map<String, PaymentIntentResult> intents = new ConcurrentHashMap<>();
+    private final Map<String, PaymentIntentResult> byIdempotencyKey = new ConcurrentHashMap<>();
+    private final Map<String, Long> createdNanos = new ConcurrentHashMap<>();
+
+    public FakePaymentGateway(PaymentGatewayProperties properties, MeterRegistry meterRegistry) {
+        super("fake", properties, meterRegistry);
+        this.settings = properties.getFake();
+        this.hangMillis = properties.getCallTimeout().toMillis() * 2;
+        logger.warn("Using fake payment gateway (latency {}, failure rate {}, timeout rate {})",
+                settings.getLatency(), settings.getFailureRate(), settings.getTimeoutRate());
+    }
+
+    @Override
+    protected PaymentIntentResult doCreatePaymentIntent(PaymentIntentRequest request) throws Exception {
+        simulateCall();
+        if (request.getIdempotencyKey() != null) {
+            return byIdempotencyKey.computeIfAbsent(request.getIdempotencyKey(), key -> newIntent(request));
+        }
+        return newIntent(request);
+    }
+
+    @Override
+    protected PaymentIntentResult doRetrievePaymentIntent(String paymentIntentId) throws Exception {
+        simulateCall();
+        PaymentIntentResult intent = intents.computeIfPresent(paymentIntentId, (id, current) ->
+                isSettled(current) ? PaymentIntentResult.builder()
+                        .id(id)
+                        .clientSecret(current.getClientSecret())
+                        .status("succeeded")
+                        .amountCents(current.getAmountCents())
+                        .build() : current);
+        if (intent == null) {
+            throw new IllegalArgumentException("No such payment intent: " + paymentIntentId);
+        }
+        return intent;
+    }
+
+    @Override
+    protected PaymentIntentResult doCancelPaymentIntent(String paymentIntentId) throws Exception {
+        simulateCall();
+        PaymentIntentResult intent = intents.computeIfPresent(paymentIntentId, (id, current) ->
+                "succeeded".equals(current.getStatus()) ? current : PaymentIntentResult.builder()
+                        .id(id)
+                        .clientSecret(current.getClientSecret())
+                        .status("canceled")
+                        .amountCents(current.getAmountCents())
+                        .build());
+        if (intent == null) {
+            throw new IllegalArgumentException("No such payment intent: " + paymentIntentId);
+        }
+        if (!"canceled".equals(intent.getStatus())) {
+            throw new IllegalStateException("Payment intent " + paymentIntentId + " is " + intent.getStatus());
+        }
+        return intent;
+    }
+
+    @Override
+    protected boolean isTransient(Exception e) {
+        return e instanceof IOException;
+    }
+
+    private PaymentIntentResult newIntent(PaymentIntentRequest request) {
+        String id = "pi_fake_" + UUID.randomUUID().toString().replace("-", "");
+        PaymentIntentResult intent = PaymentIntentResult.builder()
+                .id(id)
+                .clientSecret(id + "_secret_fake")
+                .status("requires_payment_method")
+                .amountCents(request.getAmountCents())
+                .build();
+        createdNanos.put(id, System.nanoTime());
+        intents.put(id, intent);
+        return intent;
+    }
+
+    private boolean isSettled(PaymentIntentResult intent) {
+        if (settings.getSettleAfter().isZero() || !"requires_payment_method".equals(intent.getStatus())) {
+            return false;
+        }
+        Long created = createdNanos.get(intent.getId());
+        return created != null && System.nanoTime() - created >= settings.getSettleAfter().toNanos();
+    }
+
+    private void simulateCall() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = settings.getLatency().toMillis() + random.nextLong(settings.getLatencyJitter().toMillis() + 1);
+
+        double roll = random.nextDouble();
+        if (roll < settings.getTimeoutRate()) {
+            Thread.sleep(hangMillis);
+        }
+        Thread.sleep(latency);
+        if (roll < settings.getTimeoutRate() + settings.getFailureRate()) {
+            throw new IOException("Injected payment provider failure");
+        }
+    }
+}
@@ -59,20 +59,23 @@ public class GymServiceService {
         return mapToResponse(gymService);
     }
 
+    @Transactional(readOnly = true)
     public List<GymServiceResponse> getAllServices() {
         return gymServiceRepository.findAll().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<GymServiceResponse> getServicesByLocation(Long locationId) {
         return gymServiceRepository.findByLocationIdAndActive(locationId, true).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public GymServiceResponse getServiceById(Long id) {
-        GymService service = gymServiceRepository.findById(id)
+        GymService service = gymServiceRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
         return mapToResponse(service);
     }
@@ -49,12 +49,14 @@ public class LocationService {
     }
 
 
+    @Transactional(readOnly = true)
     public List<LocationResponse> getAllLocations() {
         return locationRepository.findAll().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public LocationResponse getLocationById(Long id) {
         Location location = locationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Location not found with id: " + id));
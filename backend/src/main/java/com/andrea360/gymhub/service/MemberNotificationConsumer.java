@@ -0,0 +1,52 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.entity.OutboxEvent;
+import com.andrea360.gymhub.repository.MemberCreditRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns payment and booking outbox events into member notifications, so the
+ * credit balance lookups and WebSocket sends happen off the request path.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberNotificationConsumer implements OutboxConsumer {
+
+    private final MemberNotificationService memberNotificationService;
+    private final MemberCreditRepository memberCreditRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String getName() {
+        return "member-notifications";
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        Long memberId = payload.path("memberId").asLong();
+        String memberEmail = payload.path("memberEmail").asText();
+        Long gymServiceId = payload.path("gymServiceId").asLong();
+
+        switch (event.getEventType()) {
+            case OutboxService.PAYMENT_COMPLETED -> notifyCredits(memberId, memberEmail, gymServiceId);
+            case OutboxService.BOOKING_CONFIRMED, OutboxService.BOOKING_CANCELLED -> {
+                memberNotificationService.notifyBooking(memberId, memberEmail, event.getAggregateId(),
+                        payload.path("appointmentId").asLong(), event.getEventType());
+                notifyCredits(memberId, memberEmail, gymServiceId);
+            }
+            default -> {
+                // Not relevant to members
+            }
+        }
+    }
+
+    private void notifyCredits(Long memberId, String memberEmail, Long gymServiceId) {
+        // Balance is read at delivery time, so a redelivered event still reports the current count
+        Long available = memberCreditRepository.countUnusedCreditsByMemberAndService(memberId, gymServiceId);
+        memberNotificationService.notifyCreditsChanged(memberId, memberEmail, gymServiceId, available);
+    }
+}
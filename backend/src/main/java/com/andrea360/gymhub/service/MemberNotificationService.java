@@ -0,0 +1,52 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.dto.MemberNotificationEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pushes member-specific events to {@code /user/queue/notifications}.
+ * Only the STOMP sessions authenticated as that member receive them.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberNotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberNotificationService.class);
+
+    public static final String NOTIFICATIONS_QUEUE = "/queue/notifications";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void notifyBooking(Long memberId, String memberEmail, Long bookingId, Long appointmentId, String eventType) {
+        send(memberEmail, MemberNotificationEvent.builder()
+                .memberId(memberId)
+                .eventType(eventType)
+                .bookingId(bookingId)
+                .appointmentId(appointmentId)
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    public void notifyCreditsChanged(Long memberId, String memberEmail, Long gymServiceId, Long availableCredits) {
+        send(memberEmail, MemberNotificationEvent.builder()
+                .memberId(memberId)
+                .eventType("CREDITS_UPDATED")
+                .gymServiceId(gymServiceId)
+                .availableCredits(availableCredits)
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    private void send(String memberEmail, MemberNotificationEvent event) {
+        try {
+            messagingTemplate.convertAndSendToUser(memberEmail, NOTIFICATIONS_QUEUE, event);
+            logger.info("📡 Notification {} sent to member {}", event.getEventType(), event.getMemberId());
+        } catch (Exception e) {
+            logger.warn("Failed to send notification to member {}: {}", event.getMemberId(), e.getMessage());
+        }
+    }
+}
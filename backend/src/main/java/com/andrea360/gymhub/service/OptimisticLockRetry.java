@@ -0,0 +1,100 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and re-runs it when the commit
+ * loses a version check, with full-jitter exponential backoff. Each attempt
+ * reads fresh state, so a concurrent change is re-validated rather than
+ * overwritten. Gives up with a {@link ConflictException} after
+ * {@code max-attempts}.
+ * <p>
+ * Called inside an existing transaction the work just joins it; only the
+ * outermost caller can retry.
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+
+    public OptimisticLockRetry(TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${gymhub.optimistic-retry.max-attempts:4}") int maxAttempts,
+                               @Value("${gymhub.optimistic-retry.backoff-base:20ms}") Duration backoffBase,
+                               @Value("${gymhub.optimistic-retry.backoff-max:200ms}") Duration backoffMax) {
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = backoffBase;
+        this.backoffMax = backoffMax;
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    conflicts(operation, "exhausted").increment();
+                    logger.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw new ConflictException("This record was changed by someone else. Please try again.", e);
+                }
+
+                conflicts(operation, "retried").increment();
+                long backoffMs = backoffMillis(attempt);
+                logger.info("{} attempt {} hit a concurrent update, retrying in {}ms", operation, attempt, backoffMs);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new ConflictException("Interrupted while retrying " + operation, e);
+                }
+            }
+        }
+    }
+
+    public void run(String operation, Runnable work) {
+        execute(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(backoffMax.toMillis(), backoffBase.toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private Counter conflicts(String operation, String outcome) {
+        return Counter.builder("gymhub.optimistic_lock.conflicts")
+                .description("Transactions that lost an optimistic version check")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
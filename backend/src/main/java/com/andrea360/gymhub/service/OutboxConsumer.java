@@ -0,0 +1,21 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.entity.OutboxEvent;
+
+/**
+ * In-process consumer of outbox events. Delivery is at-least-once and in
+ * event id order, so implementations must tolerate seeing an event again.
+ */
+public interface OutboxConsumer {
+
+    /**
+     * Stable name the relay stores the consumer's checkpoint under.
+     */
+    String getName();
+
+    /**
+     * Handles one event. Throwing rolls back the batch; the event is retried
+     * with backoff and dead-lettered after {@code gymhub.outbox.max-attempts}.
+     */
+    void handle(OutboxEvent event) throws Exception;
+}
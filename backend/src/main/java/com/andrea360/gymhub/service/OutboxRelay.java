@@ -0,0 +1,295 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.entity.OutboxCheckpoint;
+import com.andrea360.gymhub.entity.OutboxDeadLetter;
+import com.andrea360.gymhub.entity.OutboxEvent;
+import com.andrea360.gymhub.repository.OutboxCheckpointRepository;
+import com.andrea360.gymhub.repository.OutboxDeadLetterRepository;
+import com.andrea360.gymhub.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the outbox and delivers events in batches to every
+ * {@link OutboxConsumer}. Each consumer has its own checkpoint row, which is
+ * locked for the duration of a batch so only one instance relays to a given
+ * consumer at a time, and which only advances past events the consumer
+ * handled successfully.
+ * <p>
+ * Sequence values are allocated before commit, so a gap in the ids may be a
+ * transaction that has not committed yet. Each gap is tracked from the
+ * moment the relay first sees it: on PostgreSQL it is closed as soon as no
+ * transaction that started before then is still running, since the one
+ * holding the missing id must be among those. Otherwise, or if such a
+ * transaction stays open, it is closed {@code gap-grace-ms} after it was
+ * first seen.
+ * <p>
+ * When a consumer throws, the whole batch rolls back, so nothing of the
+ * failing event is half applied. The event is then retried on its own with
+ * exponential backoff, and after {@code max-attempts} failures it is copied
+ * to {@code outbox_dead_letters} and the consumer moves on.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxCheckpointRepository outboxCheckpointRepository;
+    private final OutboxDeadLetterRepository outboxDeadLetterRepository;
+    private final List<OutboxConsumer> consumers;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+    private final long gapGraceMs;
+    private final long retentionHours;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    // First missing id of each open gap -> when it was first seen (database clock on PostgreSQL)
+    private final Map<Long, OffsetDateTime> gapsFirstSeen = new ConcurrentHashMap<>();
+    private Boolean postgres;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxCheckpointRepository outboxCheckpointRepository,
+                       OutboxDeadLetterRepository outboxDeadLetterRepository,
+                       List<OutboxConsumer> consumers,
+                       PlatformTransactionManager transactionManager,
+                       JdbcTemplate jdbcTemplate,
+                       @Value("${gymhub.outbox.batch-size:100}") int batchSize,
+                       @Value("${gymhub.outbox.gap-grace-ms:60000}") long gapGraceMs,
+                       @Value("${gymhub.outbox.retention-hours:72}") long retentionHours,
+                       @Value("${gymhub.outbox.max-attempts:5}") int maxAttempts,
+                       @Value("${gymhub.outbox.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxCheckpointRepository = outboxCheckpointRepository;
+        this.outboxDeadLetterRepository = outboxDeadLetterRepository;
+        this.consumers = consumers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.gapGraceMs = gapGraceMs;
+        this.retentionHours = retentionHours;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    /**
+     * Outcome of one batch: whether more events may be waiting, or the event
+     * the consumer failed on.
+     */
+    private record Batch(boolean more, OutboxEvent failedEvent, String error) {
+
+        static Batch delivered(boolean more) {
+            return new Batch(more, null, null);
+        }
+
+        static Batch failed(OutboxEvent event, Exception e) {
+            return new Batch(false, event, e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${gymhub.outbox.poll-interval-ms:1000}",
+            initialDelayString = "${gymhub.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        for (OutboxConsumer consumer : consumers) {
+            try {
+                // Keep draining while full batches come back
+                while (true) {
+                    Batch batch = transactionTemplate.execute(status -> deliverBatch(consumer, status));
+                    if (batch.failedEvent() != null) {
+                        recordFailure(consumer, batch.failedEvent(), batch.error());
+                        break;
+                    }
+                    if (!batch.more()) {
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Outbox relay to {} failed: {}", consumer.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private Batch deliverBatch(OutboxConsumer consumer, TransactionStatus status) {
+        OutboxCheckpoint checkpoint = lockCheckpoint(consumer.getName());
+        long startEventId = checkpoint.getLastEventId();
+        long lastEventId = startEventId;
+
+        List<OutboxEvent> events = outboxEventRepository.findBatchAfter(lastEventId, PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return Batch.delivered(false);
+        }
+
+        boolean more = events.size() == batchSize;
+        for (OutboxEvent event : events) {
+            if (event.getId() != lastEventId + 1 && !isGapClosed(lastEventId + 1)) {
+                more = false;
+                break;
+            }
+
+            if (event.getId().equals(checkpoint.getFailingEventId())) {
+                if (lastEventId != startEventId) {
+                    // Deliver what came before, then retry it at the head of its own batch
+                    more = true;
+                    break;
+                }
+                if (checkpoint.getAttempts() >= maxAttempts) {
+                    deadLetter(consumer, event, checkpoint);
+                    lastEventId = event.getId();
+                    continue;
+                }
+                if (checkpoint.getNextAttemptAt() != null && checkpoint.getNextAttemptAt().isAfter(LocalDateTime.now())) {
+                    more = false;
+                    break;
+                }
+            }
+
+            try {
+                consumer.handle(event);
+            } catch (Exception e) {
+                // Undo the whole batch, so no part of the failing event commits
+                status.setRollbackOnly();
+                return Batch.failed(event, e);
+            }
+            lastEventId = event.getId();
+        }
+
+        if (lastEventId != startEventId) {
+            checkpoint.setLastEventId(lastEventId);
+            if (checkpoint.getFailingEventId() != null && checkpoint.getFailingEventId() <= lastEventId) {
+                clearFailure(checkpoint);
+            }
+            outboxCheckpointRepository.save(checkpoint);
+        }
+        return Batch.delivered(more);
+    }
+
+    /**
+     * Counts a failed delivery in its own transaction, as the batch it
+     * happened in was rolled back.
+     */
+    private void recordFailure(OutboxConsumer consumer, OutboxEvent event, String error) {
+        int attempts = transactionTemplate.execute(status -> {
+            OutboxCheckpoint checkpoint = lockCheckpoint(consumer.getName());
+            if (checkpoint.getLastEventId() >= event.getId()) {
+                return 0;
+            }
+            int attempt = event.getId().equals(checkpoint.getFailingEventId()) ? checkpoint.getAttempts() + 1 : 1;
+            long backoffMs = retryBackoffMs << Math.min(attempt - 1, 20);
+
+            checkpoint.setFailingEventId(event.getId());
+            checkpoint.setAttempts(attempt);
+            checkpoint.setNextAttemptAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(backoffMs)));
+            checkpoint.setLastError(truncate(error));
+            outboxCheckpointRepository.save(checkpoint);
+            return attempt;
+        });
+        if (attempts > 0) {
+            logger.warn("Outbox consumer {} failed on event {} ({}), attempt {} of {}: {}",
+                    consumer.getName(), event.getId(), event.getEventType(), attempts, maxAttempts, error);
+        }
+    }
+
+    private void deadLetter(OutboxConsumer consumer, OutboxEvent event, OutboxCheckpoint checkpoint) {
+        outboxDeadLetterRepository.save(OutboxDeadLetter.builder()
+                .consumer(consumer.getName())
+                .eventId(event.getId())
+                .aggregateType(event.getAggregateType())
+                .aggregateId(event.getAggregateId())
+                .eventType(event.getEventType())
+                .payload(event.getPayload())
+                .attempts(checkpoint.getAttempts())
+                .lastError(checkpoint.getLastError())
+                .build());
+        logger.error("Outbox consumer {} gave up on event {} ({}) after {} attempts; moved to dead letters: {}",
+                consumer.getName(), event.getId(), event.getEventType(), checkpoint.getAttempts(),
+                checkpoint.getLastError());
+        clearFailure(checkpoint);
+    }
+
+    private static void clearFailure(OutboxCheckpoint checkpoint) {
+        checkpoint.setFailingEventId(null);
+        checkpoint.setAttempts(0);
+        checkpoint.setNextAttemptAt(null);
+        checkpoint.setLastError(null);
+    }
+
+    /**
+     * Whether the ids from {@code firstMissingId} up to the next event can no
+     * longer commit.
+     */
+    private boolean isGapClosed(long firstMissingId) {
+        OffsetDateTime firstSeen = gapsFirstSeen.computeIfAbsent(firstMissingId, id -> isPostgres()
+                ? jdbcTemplate.queryForObject("SELECT statement_timestamp()", OffsetDateTime.class)
+                : OffsetDateTime.now());
+        if (firstSeen.isBefore(OffsetDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(gapGraceMs)))) {
+            return true;
+        }
+        if (!isPostgres()) {
+            return false;
+        }
+
+        // The transaction holding the missing id started before the gap was seen
+        Boolean closed = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM pg_stat_activity WHERE datname = current_database() "
+                        + "AND backend_type = 'client backend' AND pid <> pg_backend_pid() AND xact_start < ?)",
+                Boolean.class, firstSeen);
+        return Boolean.TRUE.equals(closed);
+    }
+
+    private OutboxCheckpoint lockCheckpoint(String consumerName) {
+        // If two instances create the same checkpoint, the loser's batch fails
+        // on the primary key and is simply retried on the next poll
+        return outboxCheckpointRepository.findForUpdate(consumerName)
+                .orElseGet(() -> outboxCheckpointRepository.saveAndFlush(OutboxCheckpoint.builder()
+                        .consumer(consumerName)
+                        .lastEventId(0L)
+                        .build()));
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equals(database);
+        }
+        return postgres;
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeDelivered() {
+        transactionTemplate.executeWithoutResult(status -> outboxCheckpointRepository.findMinLastEventId()
+                .ifPresent(minDelivered -> {
+                    gapsFirstSeen.keySet().removeIf(id -> id <= minDelivered);
+                    int deleted = outboxEventRepository.deleteDelivered(
+                            minDelivered, LocalDateTime.now().minusHours(retentionHours));
+                    if (deleted > 0) {
+                        logger.info("Purged {} delivered outbox events", deleted);
+                    }
+                }));
+    }
+}
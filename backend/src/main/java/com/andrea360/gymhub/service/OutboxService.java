@@ -0,0 +1,53 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.entity.OutboxEvent;
+import com.andrea360.gymhub.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Writes domain events to the outbox. Events are only ever written as part
+ * of the caller's transaction, so they commit or roll back together with the
+ * state change they describe.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    public static final String PAYMENT_COMPLETED = "PAYMENT_COMPLETED";
+    public static final String PAYMENT_FAILED = "PAYMENT_FAILED";
+    public static final String PAYMENT_REFUNDED = "PAYMENT_REFUNDED";
+    public static final String BOOKING_CONFIRMED = "BOOKING_CONFIRMED";
+    public static final String BOOKING_CANCELLED = "BOOKING_CANCELLED";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+
+        OutboxEvent event = outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(json)
+                .build());
+        logger.debug("Outbox event {} {} written for {} {}", event.getId(), eventType, aggregateType, aggregateId);
+    }
+}
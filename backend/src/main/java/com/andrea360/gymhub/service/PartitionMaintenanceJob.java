@@ -0,0 +1,106 @@
+package com.andrea360.gymhub.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Creates the monthly partitions of {@code appointments} and
+ * {@code bookings} ahead of time, from the current month to
+ * {@code months-ahead} months out. Rows beyond that still land in the
+ * default partition; they just are not pruned. PostgreSQL only.
+ * <p>
+ * While the archive job runs, it also drops the partitions of months
+ * wholly past the archive horizon once they are empty, so the partition
+ * count stays bounded instead of growing by one a month forever.
+ */
+@Component
+public class PartitionMaintenanceJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceJob.class);
+
+    // Referencing table first, so its partitions go before the ones they point at
+    private static final List<String> TABLES = List.of("bookings", "appointments");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final boolean archiveEnabled;
+    private final Duration archiveHorizon;
+
+    private Boolean postgres;
+
+    public PartitionMaintenanceJob(JdbcTemplate jdbcTemplate,
+                                   @Value("${gymhub.partitions.months-ahead:12}") int monthsAhead,
+                                   @Value("${gymhub.archive.enabled:true}") boolean archiveEnabled,
+                                   @Value("${gymhub.archive.horizon:90d}") Duration archiveHorizon) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveHorizon = archiveHorizon;
+    }
+
+    @Scheduled(fixedDelayString = "${gymhub.partitions.interval-ms:86400000}",
+            initialDelayString = "${gymhub.partitions.initial-delay-ms:0}")
+    public void maintainPartitions() {
+        if (!isPostgres()) {
+            return;
+        }
+
+        createUpcomingPartitions();
+        if (archiveEnabled) {
+            dropArchivedPartitions();
+        }
+    }
+
+    private void createUpcomingPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        LocalDate last = month.plusMonths(monthsAhead);
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            for (String table : TABLES) {
+                String result = jdbcTemplate.queryForObject(
+                        "SELECT gymhub_create_monthly_partition(?, ?)", String.class, table, Date.valueOf(month));
+                if ("created".equals(result)) {
+                    logger.info("Created {} partition for {}", table, month);
+                } else if ("blocked".equals(result)) {
+                    logger.warn("Could not create {} partition for {}: the default partition already holds rows "
+                            + "for that month", table, month);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the empty partitions of months that ended before the archive
+     * horizon. A month that still has rows, say a booking the archive
+     * skipped, keeps its partition until a later run finds it empty.
+     */
+    private void dropArchivedPartitions() {
+        LocalDate beforeMonth = LocalDateTime.now().minus(archiveHorizon).toLocalDate().withDayOfMonth(1);
+        for (String table : TABLES) {
+            List<String> dropped = jdbcTemplate.queryForList(
+                    "SELECT gymhub_drop_empty_partitions(?, ?)", String.class, table, Date.valueOf(beforeMonth));
+            if (!dropped.isEmpty()) {
+                logger.info("Dropped {} empty {} partitions before {}: {}", dropped.size(), table, beforeMonth, dropped);
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equals(database);
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,18 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.dto.PaymentIntentRequest;
+import com.andrea360.gymhub.dto.PaymentIntentResult;
+
+/**
+ * Payment provider client. Implementations run calls on their own bounded
+ * pool with timeouts and a circuit breaker, and throw
+ * {@link com.andrea360.gymhub.exception.PaymentGatewayException} on failure.
+ */
+public interface PaymentGateway {
+
+    PaymentIntentResult createPaymentIntent(PaymentIntentRequest request);
+
+    PaymentIntentResult retrievePaymentIntent(String paymentIntentId);
+
+    PaymentIntentResult cancelPaymentIntent(String paymentIntentId);
+}
@@ -0,0 +1,271 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.dto.PaymentIntentResult;
+import com.andrea360.gymhub.entity.JobCheckpoint;
+import com.andrea360.gymhub.entity.Payment;
+import com.andrea360.gymhub.exception.PaymentGatewayException;
+import com.andrea360.gymhub.repository.JobCheckpointRepository;
+import com.andrea360.gymhub.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Brings PENDING payments in line with what the provider says about their
+ * intents, for when a webhook or confirm call never made it.
+ * <p>
+ * Each run walks PENDING payments older than {@code min-age} in id order, a
+ * chunk at a time. Intents in a chunk are looked up in parallel, capped at
+ * {@code parallelism} so checkout keeps most of the gateway pool, then the
+ * chunk's transitions and the checkpoint are written in one transaction. A
+ * restarted instance resumes after the last committed chunk; the checkpoint
+ * goes back to zero when a run reaches the end.
+ * <p>
+ * Only one instance runs at a time: a run takes a lease on the job's
+ * checkpoint row and renews it with every chunk, so {@code lease} must
+ * outlast one chunk's lookups. A lease left behind by an instance that died
+ * runs out and the next run on any instance takes over.
+ */
+@Component
+public class PaymentReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciliationJob.class);
+
+    static final String JOB_NAME = "payment-reconciliation";
+
+    private final PaymentRepository paymentRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int chunkSize;
+    private final Duration lease;
+    private final ExecutorService lookupExecutor;
+
+    public PaymentReconciliationJob(PaymentRepository paymentRepository,
+                                    JobCheckpointRepository jobCheckpointRepository,
+                                    PaymentService paymentService,
+                                    PaymentGateway paymentGateway,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${gymhub.payments.reconciliation.enabled:true}") boolean enabled,
+                                    @Value("${gymhub.payments.reconciliation.min-age:15m}") Duration minAge,
+                                    @Value("${gymhub.payments.reconciliation.chunk-size:200}") int chunkSize,
+                                    @Value("${gymhub.payments.reconciliation.parallelism:4}") int parallelism,
+                                    @Value("${gymhub.payments.reconciliation.lease:10m}") Duration lease) {
+        this.paymentRepository = paymentRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.minAge = minAge;
+        this.chunkSize = chunkSize;
+        this.lease = lease;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.lookupExecutor = Executors.newFixedThreadPool(parallelism,
+                runnable -> new Thread(runnable, "payment-reconciliation-" + threadNumber.incrementAndGet()));
+    }
+
+    @Scheduled(fixedDelayString = "${gymhub.payments.reconciliation.interval-ms:900000}",
+            initialDelayString = "${gymhub.payments.reconciliation.initial-delay-ms:60000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        Long lastId = transactionTemplate.execute(status -> acquireLease());
+        if (lastId == null) {
+            logger.debug("Payment reconciliation is running on another instance");
+            return;
+        }
+        try {
+            reconcileAfter(lastId);
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> lockCheckpoint().setLeaseUntil(null));
+        }
+    }
+
+    private void reconcileAfter(long afterId) {
+        if (afterId > 0) {
+            logger.info("Resuming payment reconciliation after payment {}", afterId);
+        }
+
+        LocalDateTime before = LocalDateTime.now().minus(minAge);
+        int checked = 0;
+        while (true) {
+            List<Object[]> chunk = paymentRepository.findPendingIntentsAfter(
+                    afterId, before, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            List<Lookup> lookups = lookUp(chunk);
+            int settled = settledPrefix(lookups);
+            if (settled > 0) {
+                afterId = lookups.get(settled - 1).paymentId();
+                apply(lookups.subList(0, settled), afterId);
+                checked += settled;
+            }
+            if (settled < lookups.size()) {
+                // Provider unavailable; keep the checkpoint and pick up from here next run
+                logger.warn("Payment reconciliation paused after payment {}: provider unavailable", afterId);
+                return;
+            }
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> saveCheckpoint(0L));
+        logger.info("Payment reconciliation finished, {} pending payments checked", checked);
+    }
+
+    private List<Lookup> lookUp(List<Object[]> chunk) {
+        List<CompletableFuture<Lookup>> futures = new ArrayList<>(chunk.size());
+        for (Object[] row : chunk) {
+            Long paymentId = (Long) row[0];
+            String paymentIntentId = (String) row[1];
+            futures.add(CompletableFuture.supplyAsync(() -> lookUp(paymentId, paymentIntentId), lookupExecutor));
+        }
+
+        List<Lookup> lookups = new ArrayList<>(futures.size());
+        for (CompletableFuture<Lookup> future : futures) {
+            try {
+                lookups.add(future.join());
+            } catch (CompletionException e) {
+                throw new IllegalStateException("Payment intent lookup failed", e.getCause());
+            }
+        }
+        return lookups;
+    }
+
+    private Lookup lookUp(Long paymentId, String paymentIntentId) {
+        try {
+            PaymentIntentResult intent = paymentGateway.retrievePaymentIntent(paymentIntentId);
+            return new Lookup(paymentId, paymentIntentId, intent.getStatus(), false);
+        } catch (PaymentGatewayException e) {
+            if (e.isRetryable()) {
+                return new Lookup(paymentId, paymentIntentId, null, true);
+            }
+            logger.warn("Could not look up payment intent {}: {}", paymentIntentId, e.getMessage());
+            return new Lookup(paymentId, paymentIntentId, null, false);
+        }
+    }
+
+    /**
+     * Number of leading lookups that got an answer, so the checkpoint never
+     * moves past a payment that still needs checking.
+     */
+    private int settledPrefix(List<Lookup> lookups) {
+        for (int i = 0; i < lookups.size(); i++) {
+            if (lookups.get(i).unavailable()) {
+                return i;
+            }
+        }
+        return lookups.size();
+    }
+
+    private void apply(List<Lookup> lookups, long lastId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                lookups.forEach(this::transition);
+                saveCheckpoint(lastId);
+            });
+        } catch (RuntimeException e) {
+            // One bad row must not block the chunk forever; retry each on its own
+            logger.warn("Reconciliation chunk ending at payment {} failed, applying one by one: {}",
+                    lastId, e.getMessage());
+            for (Lookup lookup : lookups) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> transition(lookup));
+                } catch (RuntimeException single) {
+                    outcome("error");
+                    logger.error("Could not reconcile payment {}: {}", lookup.paymentId(), single.getMessage());
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> saveCheckpoint(lastId));
+        }
+    }
+
+    private void transition(Lookup lookup) {
+        if (lookup.status() == null) {
+            outcome("error");
+            return;
+        }
+        Payment.PaymentStatus settled = paymentService.settleFromProvider(lookup.paymentIntentId(), lookup.status());
+        if (settled == Payment.PaymentStatus.COMPLETED) {
+            outcome("completed");
+        } else if (settled == Payment.PaymentStatus.FAILED) {
+            outcome("failed");
+        } else {
+            outcome("unchanged");
+        }
+    }
+
+    /**
+     * Takes the lease unless another instance holds one that has not run
+     * out. Returns the checkpoint to resume after, or null if the lease is
+     * taken.
+     */
+    private Long acquireLease() {
+        JobCheckpoint checkpoint = lockCheckpoint();
+        LocalDateTime now = LocalDateTime.now();
+        if (checkpoint.getLeaseUntil() != null && checkpoint.getLeaseUntil().isAfter(now)) {
+            return null;
+        }
+        checkpoint.setLeaseUntil(now.plus(lease));
+        return checkpoint.getLastId();
+    }
+
+    private void saveCheckpoint(long lastId) {
+        JobCheckpoint checkpoint = lockCheckpoint();
+        checkpoint.setLastId(lastId);
+        checkpoint.setLeaseUntil(LocalDateTime.now().plus(lease));
+    }
+
+    private JobCheckpoint lockCheckpoint() {
+        jobCheckpointRepository.insertIfAbsent(JOB_NAME);
+        return jobCheckpointRepository.findForUpdate(JOB_NAME)
+                .orElseThrow(() -> new IllegalStateException("Checkpoint of " + JOB_NAME + " is missing"));
+    }
+
+    private void outcome(String outcome) {
+        Counter.builder("gymhub.payments.reconciliation")
+                .description("Pending payments checked by the reconciliation job")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdown();
+    }
+
+    private record Lookup(Long paymentId, String paymentIntentId, String status, boolean unavailable) {
+    }
+}
@@ -1,6 +1,10 @@
 package com.andrea360.gymhub.service;
 
 import com.andrea360.gymhub.dto.CreatePaymentRequest;
+import com.andrea360.gymhub.dto.CreditBalanceResponse;
+import com.andrea360.gymhub.dto.PaymentIntentRequest;
+import com.andrea360.gymhub.dto.PaymentIntentResult;
+import com.andrea360.gymhub.dto.PaymentPageResponse;
 import com.andrea360.gymhub.dto.PaymentResponse;
 import com.andrea360.gymhub.entity.GymService;
 import com.andrea360.gymhub.entity.MemberCredit;
@@ -12,23 +16,23 @@ import com.andrea360.gymhub.repository.GymServiceRepository;
 import com.andrea360.gymhub.repository.MemberCreditRepository;
 import com.andrea360.gymhub.repository.PaymentRepository;
 import com.andrea360.gymhub.repository.UserRepository;
-import com.stripe.Stripe;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -36,23 +40,79 @@ public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 1, 1, 0, 0);
+
     private final PaymentRepository paymentRepository;
     private final GymServiceRepository gymServiceRepository;
     private final UserRepository userRepository;
     private final MemberCreditRepository memberCreditRepository;
+    private final OutboxService outboxService;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final CreditBalanceCache creditBalanceCache;
 
-    @Value("${stripe.api.secret-key}")
-    private String stripeSecretKey;
+    /**
+     * Creates a payment in three steps so no database connection is held
+     * while the payment provider is called: a short transaction reserves a
+     * PENDING payment, the intent is created with no transaction open, and a
+     * second short transaction attaches the intent to the payment.
+     */
+    public PaymentResponse createPayment(CreatePaymentRequest request, Long memberId) {
+        logger.info("Creating payment for member: {}", memberId);
 
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = stripeSecretKey;
-    }
+        Payment payment = transactionTemplate.execute(status -> reservePayment(request, memberId));
+        GymService gymService = payment.getGymService();
+        User member = payment.getMember();
 
-    @Transactional
-    public PaymentResponse createPayment(CreatePaymentRequest request, Long memberId) throws StripeException {
-        logger.info("Creating payment for member: {}", memberId);
+        PaymentIntentRequest intentRequest = PaymentIntentRequest.builder()
+                .amountCents(payment.getAmount().multiply(BigDecimal.valueOf(100)).longValue()) // Convert EUR to cents
+                .currency("eur")
+                .description("Purchase of " + payment.getQuantity() + "x " + gymService.getName())
+                // Keyed on the reserved payment, so a retried create returns the same intent
+                .idempotencyKey("payment-" + payment.getId())
+                .build();
+        intentRequest.getMetadata().put("paymentId", payment.getId().toString());
+        intentRequest.getMetadata().put("memberId", memberId.toString());
+        intentRequest.getMetadata().put("gymServiceId", gymService.getId().toString());
+        intentRequest.getMetadata().put("quantity", payment.getQuantity().toString());
+
+        PaymentIntentResult paymentIntent;
+        try {
+            paymentIntent = paymentGateway.createPaymentIntent(intentRequest);
+        } catch (RuntimeException e) {
+            Long paymentId = payment.getId();
+            transactionTemplate.executeWithoutResult(status -> paymentRepository.failReservation(paymentId));
+            logger.warn("Payment {} failed to create intent: {}", paymentId, e.getMessage());
+            throw e;
+        }
+
+        Integer attached = transactionTemplate.execute(status ->
+                paymentRepository.attachPaymentIntent(payment.getId(), paymentIntent.getId()));
+        if (attached == null || attached == 0) {
+            // The sweeper expired the reservation while the provider was slow
+            cancelQuietly(paymentIntent.getId());
+            throw new BadRequestException("Payment could not be started. Please try again.");
+        }
+        logger.info("Payment created with id: {}", payment.getId());
+
+        return PaymentResponse.builder()
+                .id(payment.getId())
+                .memberId(member.getId())
+                .memberName(member.getFullName())
+                .gymServiceId(gymService.getId())
+                .gymServiceName(gymService.getName())
+                .quantity(payment.getQuantity())
+                .amount(payment.getAmount())
+                .stripePaymentIntentId(paymentIntent.getId())
+                .clientSecret(paymentIntent.getClientSecret())
+                .status(payment.getStatus())
+                .createdAt(payment.getCreatedAt())
+                .build();
+    }
 
+    private Payment reservePayment(CreatePaymentRequest request, Long memberId) {
         GymService gymService = gymServiceRepository.findById(request.getGymServiceId())
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found"));
 
@@ -62,56 +122,39 @@ public class PaymentService {
         // Calculate total amount
         BigDecimal totalAmount = gymService.getPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
 
-        // Create Stripe Payment Intent
-        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                .setAmount(totalAmount.multiply(BigDecimal.valueOf(100)).longValue()) // Convert EUR to cents
-                .setCurrency("eur")
-                .putMetadata("memberId", memberId.toString())
-                .putMetadata("gymServiceId", gymService.getId().toString())
-                .putMetadata("quantity", request.getQuantity().toString())
-                .setDescription("Purchase of " + request.getQuantity() + "x " + gymService.getName())
-                .build();
-
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
-
-        // Create payment record
         Payment payment = Payment.builder()
                 .member(member)
                 .gymService(gymService)
                 .quantity(request.getQuantity())
                 .amount(totalAmount)
-                .stripePaymentIntentId(paymentIntent.getId())
                 .status(Payment.PaymentStatus.PENDING)
                 .build();
 
-        payment = paymentRepository.save(payment);
-        logger.info("Payment created with id: {}", payment.getId());
+        return paymentRepository.save(payment);
+    }
 
-        return PaymentResponse.builder()
-                .id(payment.getId())
-                .memberId(member.getId())
-                .memberName(member.getFullName())
-                .gymServiceId(gymService.getId())
-                .gymServiceName(gymService.getName())
-                .quantity(request.getQuantity())
-                .amount(totalAmount)
-                .stripePaymentIntentId(paymentIntent.getId())
-                .clientSecret(paymentIntent.getClientSecret())
-                .status(payment.getStatus())
-                .createdAt(payment.getCreatedAt())
-                .build();
+    private void cancelQuietly(String paymentIntentId) {
+        try {
+            paymentGateway.cancelPaymentIntent(paymentIntentId);
+        } catch (RuntimeException e) {
+            logger.warn("Could not cancel payment intent {}: {}", paymentIntentId, e.getMessage());
+        }
     }
 
+    /**
+     * Completes the payment and grants its credits. Returns false if it was
+     * already completed.
+     */
     @Transactional
-    public void confirmPayment(String paymentIntentId) {
+    public boolean confirmPayment(String paymentIntentId) {
         logger.info("Confirming payment: {}", paymentIntentId);
 
-        Payment payment = paymentRepository.findByStripePaymentIntentId(paymentIntentId)
+        Payment payment = paymentRepository.findForUpdateByStripePaymentIntentId(paymentIntentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
 
         if (payment.getStatus() == Payment.PaymentStatus.COMPLETED) {
             logger.warn("Payment already completed: {}", paymentIntentId);
-            return;
+            return false;
         }
 
         // Update payment status
@@ -133,31 +176,142 @@ public class PaymentService {
 
         memberCreditRepository.saveAll(credits);
         logger.info("Created {} credits for member: {}", credits.size(), payment.getMember().getId());
+        creditBalanceCache.invalidateAfterCommit(payment.getMember().getId());
+
+        publishPaymentEvent(payment, OutboxService.PAYMENT_COMPLETED);
+        return true;
     }
 
-    public List<PaymentResponse> getMyPayments(Long memberId) {
-        return paymentRepository.findByMemberId(memberId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Fails a PENDING payment. Returns false if it was no longer pending.
+     */
+    @Transactional
+    public boolean markPaymentFailed(String paymentIntentId) {
+        Payment payment = paymentRepository.findForUpdateByStripePaymentIntentId(paymentIntentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
+
+        if (payment.getStatus() != Payment.PaymentStatus.PENDING) {
+            logger.warn("Ignoring failure for payment {} in status {}", paymentIntentId, payment.getStatus());
+            return false;
+        }
+
+        payment.setStatus(Payment.PaymentStatus.FAILED);
+        paymentRepository.save(payment);
+        logger.info("Payment marked as failed: {}", paymentIntentId);
+
+        publishPaymentEvent(payment, OutboxService.PAYMENT_FAILED);
+        return true;
     }
 
-    public Long getAvailableCredits(Long memberId, Long serviceId) {
-        return memberCreditRepository.countUnusedCreditsByMemberAndService(memberId, serviceId);
+    /**
+     * Applies the status the provider reports for an intent whose webhook or
+     * confirmation never arrived. Returns the status the payment was moved
+     * to, or null if it was not moved: the provider's status is not final,
+     * or the payment had already been settled.
+     */
+    @Transactional
+    public Payment.PaymentStatus settleFromProvider(String paymentIntentId, String providerStatus) {
+        switch (providerStatus) {
+            case "succeeded" -> {
+                if (!confirmPayment(paymentIntentId)) {
+                    return null;
+                }
+                logger.warn("Payment intent {} succeeded without confirmation, confirmed now", paymentIntentId);
+                return Payment.PaymentStatus.COMPLETED;
+            }
+            case "canceled" -> {
+                return markPaymentFailed(paymentIntentId) ? Payment.PaymentStatus.FAILED : null;
+            }
+            default -> {
+                return null;
+            }
+        }
     }
 
-    private PaymentResponse mapToResponse(Payment payment) {
-        return PaymentResponse.builder()
-                .id(payment.getId())
-                .memberId(payment.getMember().getId())
-                .memberName(payment.getMember().getFullName())
-                .gymServiceId(payment.getGymService().getId())
-                .gymServiceName(payment.getGymService().getName())
-                .quantity(payment.getQuantity())
-                .amount(payment.getAmount())
-                .stripePaymentIntentId(payment.getStripePaymentIntentId())
-                .status(payment.getStatus())
-                .createdAt(payment.getCreatedAt())
-                .completedAt(payment.getCompletedAt())
+    /**
+     * A page of the member's payment history, newest first. Pages are
+     * addressed by an opaque keyset cursor over (createdAt, id), so every
+     * page costs the same index range scan however long the history is.
+     */
+    @Transactional(readOnly = true)
+    public PaymentPageResponse getMyPayments(Long memberId, LocalDate from, LocalDate to,
+                                             Payment.PaymentStatus status, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : HISTORY_START;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : HISTORY_END;
+        List<Payment.PaymentStatus> statuses = status != null
+                ? List.of(status)
+                : List.of(Payment.PaymentStatus.values());
+
+        LocalDateTime afterCreatedAt = toTime;
+        Long afterId = Long.MAX_VALUE;
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            afterCreatedAt = LocalDateTime.parse(position[0]);
+            afterId = Long.parseLong(position[1]);
+        }
+
+        // One extra row tells whether another page follows
+        List<PaymentResponse> rows = paymentRepository.findPageByMember(memberId, statuses, fromTime, toTime,
+                afterCreatedAt, afterId, PageRequest.of(0, size + 1));
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            PaymentResponse last = rows.get(size - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+
+        return PaymentPageResponse.builder()
+                .items(rows)
+                .nextCursor(nextCursor)
                 .build();
     }
+
+    public List<CreditBalanceResponse> getCreditBalances(Long memberId) {
+        return creditBalanceCache.get(memberId,
+                () -> memberCreditRepository.summarizeUnusedCreditsByMember(memberId));
+    }
+
+    public Long getAvailableCredits(Long memberId, Long serviceId) {
+        return getCreditBalances(memberId).stream()
+                .filter(balance -> balance.getGymServiceId().equals(serviceId))
+                .map(CreditBalanceResponse::getAvailableCredits)
+                .findFirst()
+                .orElse(0L);
+    }
+
+    private void publishPaymentEvent(Payment payment, String eventType) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("memberId", payment.getMember().getId());
+        payload.put("memberEmail", payment.getMember().getEmail());
+        payload.put("gymServiceId", payment.getGymService().getId());
+        payload.put("quantity", payment.getQuantity());
+        payload.put("amount", payment.getAmount());
+        payload.put("status", payment.getStatus());
+        outboxService.publish("Payment", payment.getId(), eventType, payload);
+    }
+
+    private String encodeCursor(LocalDateTime createdAt, Long id) {
+        String position = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
 }
\ No newline at end of file
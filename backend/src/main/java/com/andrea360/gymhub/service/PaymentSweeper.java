@@ -0,0 +1,112 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.dto.PaymentIntentResult;
+import com.andrea360.gymhub.exception.PaymentGatewayException;
+import com.andrea360.gymhub.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cleans up PENDING payments that will never complete:
+ * <ul>
+ *   <li>reservations whose intent was never attached (the instance died
+ *   between the gateway call and finalizing) are marked FAILED;</li>
+ *   <li>intents the member never paid are cancelled with the provider and
+ *   marked FAILED, unless the provider reports them paid, in which case the
+ *   missed confirmation is applied instead.</li>
+ * </ul>
+ * Abandoned intents are walked in id order from where the previous run
+ * stopped, so intents that stay PENDING (still processing, or unknown to
+ * the provider) cannot hold up the ones behind them. The position is kept
+ * per instance and wraps to the start once the end is reached.
+ */
+@Component
+public class PaymentSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentSweeper.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration reservationTimeout;
+    private final Duration abandonAfter;
+    private final int batchSize;
+
+    // Last payment id swept; the next run starts after it
+    private volatile long sweptAfterId;
+
+    public PaymentSweeper(PaymentRepository paymentRepository,
+                          PaymentService paymentService,
+                          PaymentGateway paymentGateway,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${gymhub.payments.sweeper.reservation-timeout:10m}") Duration reservationTimeout,
+                          @Value("${gymhub.payments.sweeper.abandon-after:24h}") Duration abandonAfter,
+                          @Value("${gymhub.payments.sweeper.batch-size:100}") int batchSize) {
+        this.paymentRepository = paymentRepository;
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.transactionTemplate = transactionTemplate;
+        this.reservationTimeout = reservationTimeout;
+        this.abandonAfter = abandonAfter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${gymhub.payments.sweeper.interval-ms:300000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+
+        Integer expired = transactionTemplate.execute(status ->
+                paymentRepository.failStaleReservations(now.minus(reservationTimeout)));
+        if (expired != null && expired > 0) {
+            logger.info("Expired {} payment reservations without an intent", expired);
+        }
+
+        List<Object[]> abandoned = paymentRepository.findPendingIntentsAfter(
+                sweptAfterId, now.minus(abandonAfter), PageRequest.of(0, batchSize));
+        for (Object[] row : abandoned) {
+            Long paymentId = (Long) row[0];
+            String paymentIntentId = (String) row[1];
+            try {
+                sweepIntent(paymentIntentId);
+            } catch (PaymentGatewayException e) {
+                logger.warn("Could not sweep payment intent {}: {}", paymentIntentId, e.getMessage());
+                if (e.isRetryable()) {
+                    // Provider is struggling; start from this one on the next run
+                    return;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not sweep payment intent {}: {}", paymentIntentId, e.getMessage());
+            }
+            sweptAfterId = paymentId;
+        }
+        if (abandoned.size() < batchSize) {
+            sweptAfterId = 0L;
+        }
+    }
+
+    private void sweepIntent(String paymentIntentId) {
+        PaymentIntentResult intent = paymentGateway.retrievePaymentIntent(paymentIntentId);
+        switch (intent.getStatus()) {
+            case "succeeded", "canceled" -> paymentService.settleFromProvider(paymentIntentId, intent.getStatus());
+            case "processing" -> {
+                // Funds are in flight; leave it for the webhook
+            }
+            default -> {
+                paymentGateway.cancelPaymentIntent(paymentIntentId);
+                paymentService.markPaymentFailed(paymentIntentId);
+                logger.info("Abandoned payment intent {} cancelled", paymentIntentId);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.entity.OutboxEvent;
+import com.andrea360.gymhub.entity.Payment;
+import com.andrea360.gymhub.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies completed and refunded payments to the revenue rollups. Runs in
+ * the relay's transaction, so each increment commits together with the
+ * checkpoint that covers it and a redelivered event is never counted twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class RevenueRollupConsumer implements OutboxConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueRollupConsumer.class);
+
+    static final String NAME = "revenue-rollups";
+
+    private final PaymentRepository paymentRepository;
+    private final RevenueService revenueService;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        boolean completed = OutboxService.PAYMENT_COMPLETED.equals(event.getEventType());
+        boolean refunded = OutboxService.PAYMENT_REFUNDED.equals(event.getEventType());
+        if (!completed && !refunded) {
+            return;
+        }
+
+        Payment payment = paymentRepository.findById(event.getAggregateId()).orElse(null);
+        if (payment == null) {
+            logger.warn("Payment {} for outbox event {} no longer exists", event.getAggregateId(), event.getId());
+            return;
+        }
+
+        Long gymServiceId = payment.getGymService().getId();
+        Long locationId = payment.getGymService().getLocation().getId();
+
+        if (completed) {
+            revenueService.recordPayment(locationId, gymServiceId,
+                    payment.getCompletedAt().toLocalDate(), payment.getAmount());
+        } else {
+            revenueService.recordRefund(locationId, gymServiceId, payment.refundDay(), payment.getAmount());
+        }
+    }
+}
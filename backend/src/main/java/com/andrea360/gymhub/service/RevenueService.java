@@ -0,0 +1,245 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.dto.RevenueComparisonResponse;
+import com.andrea360.gymhub.dto.RevenueDayResponse;
+import com.andrea360.gymhub.dto.RevenueReportResponse;
+import com.andrea360.gymhub.dto.ServiceRevenueResponse;
+import com.andrea360.gymhub.entity.GymService;
+import com.andrea360.gymhub.entity.OutboxCheckpoint;
+import com.andrea360.gymhub.entity.RevenueRollup;
+import com.andrea360.gymhub.exception.BadRequestException;
+import com.andrea360.gymhub.repository.GymServiceRepository;
+import com.andrea360.gymhub.repository.OutboxCheckpointRepository;
+import com.andrea360.gymhub.repository.OutboxEventRepository;
+import com.andrea360.gymhub.repository.PaymentRepository;
+import com.andrea360.gymhub.repository.RevenueRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Revenue reporting on top of {@link RevenueRollup}. Reports read at most one
+ * row per location, service and day in the requested range, independent of
+ * how many payments were made.
+ */
+@Service
+@RequiredArgsConstructor
+public class RevenueService implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueService.class);
+
+    private static final long MAX_RANGE_DAYS = 366;
+    private static final int MAX_TOP_SERVICES = 50;
+
+    private final RevenueRollupRepository revenueRollupRepository;
+    private final GymServiceRepository gymServiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxCheckpointRepository outboxCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Boolean postgres;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPayment(Long locationId, Long gymServiceId, LocalDate day, BigDecimal amount) {
+        upsert(locationId, gymServiceId, day, 1L, amount, 0L, BigDecimal.ZERO);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRefund(Long locationId, Long gymServiceId, LocalDate day, BigDecimal amount) {
+        upsert(locationId, gymServiceId, day, 0L, BigDecimal.ZERO, 1L, amount);
+    }
+
+    @Transactional(readOnly = true)
+    public RevenueReportResponse getReport(LocalDate from, LocalDate to, Long locationId, Long gymServiceId) {
+        validateRange(from, to);
+        List<RevenueDayResponse> days = revenueRollupRepository.findDaily(from, to, locationId, gymServiceId);
+        return summarize(from, to, locationId, gymServiceId, days);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ServiceRevenueResponse> getTopServices(LocalDate from, LocalDate to, Long locationId, int limit) {
+        validateRange(from, to);
+        if (limit < 1 || limit > MAX_TOP_SERVICES) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_TOP_SERVICES);
+        }
+
+        List<ServiceRevenueResponse> top = revenueRollupRepository.findTopServices(
+                from, to, locationId, PageRequest.of(0, limit));
+
+        Map<Long, String> names = gymServiceRepository.findAllById(
+                        top.stream().map(ServiceRevenueResponse::getGymServiceId).toList()).stream()
+                .collect(Collectors.toMap(GymService::getId, GymService::getName));
+        top.forEach(service -> service.setGymServiceName(names.get(service.getGymServiceId())));
+        return top;
+    }
+
+    /**
+     * Compares the range with the immediately preceding range of the same
+     * length.
+     */
+    @Transactional(readOnly = true)
+    public RevenueComparisonResponse compare(LocalDate from, LocalDate to, Long locationId, Long gymServiceId) {
+        validateRange(from, to);
+        long length = ChronoUnit.DAYS.between(from, to) + 1;
+        LocalDate previousFrom = from.minusDays(length);
+        LocalDate previousTo = from.minusDays(1);
+
+        RevenueReportResponse current = summarize(from, to, locationId, gymServiceId,
+                revenueRollupRepository.findDaily(from, to, locationId, gymServiceId));
+        RevenueReportResponse previous = summarize(previousFrom, previousTo, locationId, gymServiceId,
+                revenueRollupRepository.findDaily(previousFrom, previousTo, locationId, gymServiceId));
+        current.setDays(null);
+        previous.setDays(null);
+
+        BigDecimal change = current.getNetAmount().subtract(previous.getNetAmount());
+        BigDecimal changePercent = previous.getNetAmount().signum() == 0
+                ? null
+                : change.multiply(BigDecimal.valueOf(100)).divide(previous.getNetAmount().abs(), 2, RoundingMode.HALF_UP);
+
+        return RevenueComparisonResponse.builder()
+                .current(current)
+                .previous(previous)
+                .netChange(change)
+                .netChangePercent(changePercent)
+                .build();
+    }
+
+    /**
+     * Seeds the rollups from payment history the first time the rollup
+     * consumer is deployed. Runs before the scheduler starts, so the outbox
+     * relay cannot create the consumer's checkpoint first and replay only
+     * the events still retained in the outbox. If it fails the application
+     * does not start, as the consumer would otherwise begin from event 0.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> backfill());
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Revenue rollup backfill failed", e);
+        }
+    }
+
+    private void backfill() {
+        if (isPostgres()) {
+            // The checkpoint and the sums must come from one snapshot. Set in
+            // SQL, as delayed connection acquisition keeps the transaction
+            // manager from setting isolation levels
+            jdbcTemplate.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+            // Taken before the snapshot: waits for transactions still writing
+            // events with lower ids, holds off new ones until this commits,
+            // and makes a second instance starting alongside wait and then
+            // see this one's checkpoint
+            jdbcTemplate.execute("LOCK TABLE outbox_events IN SHARE ROW EXCLUSIVE MODE");
+        }
+        if (outboxCheckpointRepository.existsById(RevenueRollupConsumer.NAME)) {
+            return;
+        }
+
+        // Events up to here are covered by the payment rows read below
+        Long lastEventId = outboxEventRepository.findMaxId().orElse(0L);
+        // Payments and refunds land on different days, as they do in RevenueRollupConsumer
+        Map<List<Object>, RevenueRollup> rollups = new LinkedHashMap<>();
+        for (Object[] row : paymentRepository.sumPaymentsByLocationServiceAndDay()) {
+            RevenueRollup rollup = rollup(rollups, row);
+            rollup.setPayments((Long) row[3]);
+            rollup.setGrossAmount((BigDecimal) row[4]);
+        }
+        for (Object[] row : paymentRepository.sumRefundsByLocationServiceAndDay()) {
+            RevenueRollup rollup = rollup(rollups, row);
+            rollup.setRefunds((Long) row[3]);
+            rollup.setRefundedAmount((BigDecimal) row[4]);
+        }
+        revenueRollupRepository.saveAll(rollups.values());
+
+        outboxCheckpointRepository.save(OutboxCheckpoint.builder()
+                .consumer(RevenueRollupConsumer.NAME)
+                .lastEventId(lastEventId)
+                .build());
+        logger.info("Revenue rollups backfilled with {} rows", rollups.size());
+    }
+
+    private static RevenueRollup rollup(Map<List<Object>, RevenueRollup> rollups, Object[] row) {
+        return rollups.computeIfAbsent(List.of(row[0], row[1], row[2]), key -> RevenueRollup.builder()
+                .locationId((Long) row[0])
+                .gymServiceId((Long) row[1])
+                .day((LocalDate) row[2])
+                .build());
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equals(database);
+        }
+        return postgres;
+    }
+
+    private void upsert(Long locationId, Long gymServiceId, LocalDate day,
+                        Long payments, BigDecimal grossAmount, Long refunds, BigDecimal refundedAmount) {
+        // The relay delivers to one consumer at a time, so update-then-insert cannot race
+        int updated = revenueRollupRepository.increment(
+                locationId, gymServiceId, day, payments, grossAmount, refunds, refundedAmount);
+        if (updated == 0) {
+            revenueRollupRepository.save(RevenueRollup.builder()
+                    .locationId(locationId)
+                    .gymServiceId(gymServiceId)
+                    .day(day)
+                    .payments(payments)
+                    .grossAmount(grossAmount)
+                    .refunds(refunds)
+                    .refundedAmount(refundedAmount)
+                    .build());
+        }
+    }
+
+    private RevenueReportResponse summarize(LocalDate from, LocalDate to, Long locationId, Long gymServiceId,
+                                            List<RevenueDayResponse> days) {
+        return RevenueReportResponse.builder()
+                .from(from)
+                .to(to)
+                .locationId(locationId)
+                .gymServiceId(gymServiceId)
+                .grossAmount(sum(days, RevenueDayResponse::getGrossAmount))
+                .refundedAmount(sum(days, RevenueDayResponse::getRefundedAmount))
+                .netAmount(sum(days, RevenueDayResponse::getNetAmount))
+                .payments(days.stream().mapToLong(RevenueDayResponse::getPayments).sum())
+                .refunds(days.stream().mapToLong(RevenueDayResponse::getRefunds).sum())
+                .days(days)
+                .build();
+    }
+
+    private BigDecimal sum(List<RevenueDayResponse> days, Function<RevenueDayResponse, BigDecimal> field) {
+        return days.stream().map(field).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BadRequestException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.entity.StripeEvent;
+import com.andrea360.gymhub.exception.ResourceNotFoundException;
+import com.andrea360.gymhub.repository.StripeEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Applies a stored Stripe event to our payment state. The state change and
+ * marking the event processed commit together, and the payment transitions
+ * are idempotent, so redelivered or retried events are harmless.
+ */
+@Service
+@RequiredArgsConstructor
+public class StripeEventProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeEventProcessor.class);
+
+    private final StripeEventRepository stripeEventRepository;
+    private final PaymentService paymentService;
+
+    @Transactional
+    public void process(String eventId) {
+        StripeEvent event = stripeEventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Stripe event not found: " + eventId));
+
+        StripeEvent.StripeEventStatus outcome = switch (event.getType()) {
+            case "payment_intent.succeeded" -> {
+                // A success always wins, even if a failure for the same intent was seen earlier
+                paymentService.confirmPayment(requireIntent(event));
+                yield StripeEvent.StripeEventStatus.PROCESSED;
+            }
+            case "payment_intent.payment_failed", "payment_intent.canceled" -> {
+                // Only moves PENDING payments, so a late failure cannot undo a completed payment
+                paymentService.markPaymentFailed(requireIntent(event));
+                yield StripeEvent.StripeEventStatus.PROCESSED;
+            }
+            default -> StripeEvent.StripeEventStatus.IGNORED;
+        };
+
+        event.setStatus(outcome);
+        event.setProcessedAt(LocalDateTime.now());
+        event.setLastError(null);
+        stripeEventRepository.save(event);
+        logger.info("Stripe event {} ({}) {}", event.getId(), event.getType(), outcome);
+    }
+
+    private String requireIntent(StripeEvent event) {
+        if (event.getPaymentIntentId() == null) {
+            throw new IllegalStateException("Event " + event.getId() + " has no payment intent");
+        }
+        return event.getPaymentIntentId();
+    }
+}
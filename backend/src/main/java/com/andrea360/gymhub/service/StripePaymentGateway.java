@@ -0,0 +1,86 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.config.PaymentGatewayProperties;
+import com.andrea360.gymhub.dto.PaymentIntentRequest;
+import com.andrea360.gymhub.dto.PaymentIntentResult;
+import com.stripe.StripeClient;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+/**
+ * Stripe-backed gateway. Uses its own {@link StripeClient} with explicit
+ * connect/read timeouts instead of the global {@code Stripe.apiKey}, and
+ * leaves retries to {@link AbstractPaymentGateway}.
+ */
+@Service
+@ConditionalOnProperty(name = "gymhub.payment-gateway.provider", havingValue = "stripe", matchIfMissing = true)
+public class StripePaymentGateway extends AbstractPaymentGateway {
+
+    private final StripeClient stripeClient;
+
+    public StripePaymentGateway(PaymentGatewayProperties properties,
+                                MeterRegistry meterRegistry,
+                                @Value("${stripe.api.secret-key}") String secretKey) {
+        super("stripe", properties, meterRegistry);
+        this.stripeClient = StripeClient.builder()
+                .setApiKey(secretKey)
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setReadTimeout((int) properties.getReadTimeout().toMillis())
+                .setMaxNetworkRetries(0)
+                .build();
+    }
+
+    @Override
+    protected PaymentIntentResult doCreatePaymentIntent(PaymentIntentRequest request) throws StripeException {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(request.getAmountCents())
+                .setCurrency(request.getCurrency())
+                .putAllMetadata(request.getMetadata())
+                .setDescription(request.getDescription())
+                .build();
+
+        RequestOptions.RequestOptionsBuilder options = RequestOptions.builder();
+        if (request.getIdempotencyKey() != null) {
+            options.setIdempotencyKey(request.getIdempotencyKey());
+        }
+
+        return toResult(stripeClient.paymentIntents().create(params, options.build()));
+    }
+
+    @Override
+    protected PaymentIntentResult doRetrievePaymentIntent(String paymentIntentId) throws StripeException {
+        return toResult(stripeClient.paymentIntents().retrieve(paymentIntentId));
+    }
+
+    @Override
+    protected PaymentIntentResult doCancelPaymentIntent(String paymentIntentId) throws StripeException {
+        return toResult(stripeClient.paymentIntents().cancel(paymentIntentId));
+    }
+
+    @Override
+    protected boolean isTransient(Exception e) {
+        if (e instanceof StripeException stripeException) {
+            Integer status = stripeException.getStatusCode();
+            // No status means the request never got a response (connection error)
+            return status == null || status == 409 || status == 429 || status >= 500;
+        }
+        return e instanceof IOException;
+    }
+
+    private PaymentIntentResult toResult(PaymentIntent paymentIntent) {
+        return PaymentIntentResult.builder()
+                .id(paymentIntent.getId())
+                .clientSecret(paymentIntent.getClientSecret())
+                .status(paymentIntent.getStatus())
+                .amountCents(paymentIntent.getAmount())
+                .build();
+    }
+}
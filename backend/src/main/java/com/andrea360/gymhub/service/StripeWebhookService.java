@@ -0,0 +1,184 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.entity.StripeEvent;
+import com.andrea360.gymhub.exception.BadRequestException;
+import com.andrea360.gymhub.repository.StripeEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.model.Event;
+import com.stripe.net.Webhook;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stripe webhook ingestion. The endpoint only verifies the signature and
+ * stores the raw event (deduplicated on the Stripe event id) before it is
+ * acknowledged. A bounded worker pool applies events afterwards, and a
+ * poller retries failures with backoff and picks up anything the pool could
+ * not accept.
+ */
+@Service
+public class StripeWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookService.class);
+
+    private static final long LEASE_SECONDS = 300;
+    private static final long MAX_BACKOFF_SECONDS = 600;
+
+    private final StripeEventRepository stripeEventRepository;
+    private final StripeEventProcessor stripeEventProcessor;
+    private final ObjectMapper objectMapper;
+
+    private final String webhookSecret;
+    private final int maxAttempts;
+    private final int pollBatchSize;
+    private final ThreadPoolExecutor executor;
+
+    public StripeWebhookService(StripeEventRepository stripeEventRepository,
+                                StripeEventProcessor stripeEventProcessor,
+                                ObjectMapper objectMapper,
+                                @Value("${stripe.webhook.secret:}") String webhookSecret,
+                                @Value("${stripe.webhook.workers:2}") int workers,
+                                @Value("${stripe.webhook.queue-capacity:500}") int queueCapacity,
+                                @Value("${stripe.webhook.max-attempts:10}") int maxAttempts,
+                                @Value("${stripe.webhook.poll-batch-size:100}") int pollBatchSize) {
+        this.stripeEventRepository = stripeEventRepository;
+        this.stripeEventProcessor = stripeEventProcessor;
+        this.objectMapper = objectMapper;
+        this.webhookSecret = webhookSecret;
+        this.maxAttempts = maxAttempts;
+        this.pollBatchSize = pollBatchSize;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers,
+                workers,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "stripe-webhook-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Verifies and stores a webhook delivery. Returns once the event is
+     * durable; processing happens asynchronously.
+     */
+    public void receive(String payload, String signatureHeader) {
+        if (!StringUtils.hasText(webhookSecret)) {
+            throw new BadRequestException("Stripe webhook secret is not configured");
+        }
+
+        Event event;
+        try {
+            event = Webhook.constructEvent(payload, signatureHeader, webhookSecret);
+        } catch (SignatureVerificationException e) {
+            logger.warn("Invalid Stripe webhook signature: {}", e.getMessage());
+            throw new BadRequestException("Invalid Stripe signature");
+        } catch (RuntimeException e) {
+            logger.warn("Invalid Stripe webhook payload: {}", e.getMessage());
+            throw new BadRequestException("Invalid Stripe payload");
+        }
+
+        if (stripeEventRepository.existsById(event.getId())) {
+            logger.info("Duplicate Stripe event {} ignored", event.getId());
+            return;
+        }
+
+        StripeEvent stripeEvent = StripeEvent.builder()
+                .id(event.getId())
+                .type(event.getType())
+                .paymentIntentId(extractPaymentIntentId(payload))
+                .payload(payload)
+                .stripeCreatedAt(event.getCreated())
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+
+        try {
+            stripeEventRepository.save(stripeEvent);
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Duplicate Stripe event {} ignored", event.getId());
+            return;
+        }
+
+        logger.info("Stripe event {} ({}) stored", event.getId(), event.getType());
+        dispatch(event.getId());
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.webhook.poll-interval-ms:10000}",
+            initialDelayString = "${stripe.webhook.poll-interval-ms:10000}")
+    public void processDueEvents() {
+        stripeEventRepository.findDueEventIds(LocalDateTime.now(), PageRequest.of(0, pollBatchSize))
+                .forEach(this::dispatch);
+    }
+
+    private void dispatch(String eventId) {
+        try {
+            executor.execute(() -> process(eventId));
+        } catch (RejectedExecutionException e) {
+            // Still stored as RECEIVED; the poller will pick it up
+            logger.warn("Stripe worker queue full, deferring event {}", eventId);
+        }
+    }
+
+    private void process(String eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (stripeEventRepository.claim(eventId, now, now.plusSeconds(LEASE_SECONDS)) == 0) {
+            return;
+        }
+
+        try {
+            stripeEventProcessor.process(eventId);
+        } catch (Exception e) {
+            int attempts = stripeEventRepository.findById(eventId)
+                    .map(StripeEvent::getAttempts)
+                    .orElse(maxAttempts);
+            String error = e.getMessage() != null && e.getMessage().length() > 1000
+                    ? e.getMessage().substring(0, 1000)
+                    : e.getMessage();
+
+            if (attempts >= maxAttempts) {
+                logger.error("Stripe event {} failed permanently after {} attempts: {}", eventId, attempts, error);
+                stripeEventRepository.markForRetry(eventId, StripeEvent.StripeEventStatus.FAILED, now, error);
+            } else {
+                long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+                logger.warn("Stripe event {} attempt {} failed, retrying in {}s: {}", eventId, attempts, backoff, error);
+                stripeEventRepository.markForRetry(eventId, StripeEvent.StripeEventStatus.RECEIVED,
+                        now.plusSeconds(backoff), error);
+            }
+        }
+    }
+
+    private String extractPaymentIntentId(String payload) {
+        try {
+            JsonNode object = objectMapper.readTree(payload).path("data").path("object");
+            if ("payment_intent".equals(object.path("object").asText())) {
+                return object.path("id").asText(null);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read payment intent from Stripe payload: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
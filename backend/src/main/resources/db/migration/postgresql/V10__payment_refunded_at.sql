@@ -0,0 +1,3 @@
+-- When a payment was refunded; revenue rollups count the refund on this day.
+
+ALTER TABLE payments ADD COLUMN refunded_at timestamp(6);
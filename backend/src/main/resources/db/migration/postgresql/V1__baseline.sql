@@ -0,0 +1,111 @@
+-- Schema as Hibernate generated it before migrations took over. Databases
+-- that ddl-auto created then are baselined at this version and skip it, so
+-- it must stay exactly what they have; everything added since goes in V2
+-- onwards. Constraint names are kept so both paths end up identical.
+
+CREATE TABLE appointments (
+    active boolean not null,
+    current_bookings integer not null,
+    max_capacity integer not null,
+    created_at timestamp(6) not null,
+    created_by_user_id bigint not null,
+    end_time timestamp(6) not null,
+    gym_service_id bigint not null,
+    id bigserial not null,
+    location_id bigint not null,
+    start_time timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    primary key (id)
+);
+
+CREATE TABLE bookings (
+    appointment_id bigint not null,
+    cancelled_at timestamp(6),
+    created_at timestamp(6) not null,
+    id bigserial not null,
+    member_id bigint not null,
+    used_credit_id bigint not null,
+    version bigint,
+    status varchar(255) not null check (status in ('CONFIRMED','CANCELLED')),
+    primary key (id),
+    constraint uk_booking_appointment_member unique (appointment_id, member_id)
+);
+
+CREATE TABLE gym_services (
+    active boolean not null,
+    price numeric(10,2) not null,
+    created_at timestamp(6) not null,
+    created_by_user_id bigint not null,
+    id bigserial not null,
+    location_id bigint not null,
+    updated_at timestamp(6) not null,
+    name varchar(100) not null,
+    description varchar(500),
+    primary key (id)
+);
+
+CREATE TABLE locations (
+    active boolean not null,
+    created_at timestamp(6) not null,
+    id bigserial not null,
+    updated_at timestamp(6) not null,
+    name varchar(100) not null,
+    address varchar(255) not null,
+    primary key (id)
+);
+
+CREATE TABLE member_credits (
+    used boolean not null,
+    gym_service_id bigint not null,
+    id bigserial not null,
+    member_id bigint not null,
+    payment_id bigint not null,
+    purchased_at timestamp(6) not null,
+    used_at timestamp(6),
+    primary key (id)
+);
+
+CREATE TABLE payments (
+    amount numeric(10,2) not null,
+    quantity integer not null,
+    completed_at timestamp(6),
+    created_at timestamp(6) not null,
+    gym_service_id bigint not null,
+    id bigserial not null,
+    member_id bigint not null,
+    status varchar(20) not null check (status in ('PENDING','COMPLETED','FAILED','REFUNDED')),
+    stripe_payment_intent_id varchar(255) not null,
+    primary key (id),
+    constraint uk_puc8mkpduwb4ws7khxcoo0s3t unique (stripe_payment_intent_id)
+);
+
+CREATE TABLE users (
+    active boolean not null,
+    created_at timestamp(6) not null,
+    id bigserial not null,
+    location_id bigint,
+    updated_at timestamp(6) not null,
+    phone varchar(20),
+    role varchar(20) not null check (role in ('ADMIN','EMPLOYEE','MEMBER')),
+    first_name varchar(50) not null,
+    last_name varchar(50) not null,
+    email varchar(100) not null,
+    password varchar(255) not null,
+    primary key (id),
+    constraint uk6dotkott2kjsp8vw4d0m25fb7 unique (email)
+);
+
+ALTER TABLE appointments ADD CONSTRAINT FKjq9fwoum1v9y7ha4jfo5pm0pc FOREIGN KEY (created_by_user_id) REFERENCES users;
+ALTER TABLE appointments ADD CONSTRAINT FKlggnm0bgqpnlhbpauygn2mluv FOREIGN KEY (gym_service_id) REFERENCES gym_services;
+ALTER TABLE appointments ADD CONSTRAINT FKsorylc1v099qpxex8nfwuvlog FOREIGN KEY (location_id) REFERENCES locations;
+ALTER TABLE bookings ADD CONSTRAINT FK4s7p3pkn4n2jh7p427gjhsvik FOREIGN KEY (appointment_id) REFERENCES appointments;
+ALTER TABLE bookings ADD CONSTRAINT FKbre3mkuge8pf64927h1ir11d2 FOREIGN KEY (member_id) REFERENCES users;
+ALTER TABLE bookings ADD CONSTRAINT FKseu6okjvtr1wjb0axhlsd42uk FOREIGN KEY (used_credit_id) REFERENCES member_credits;
+ALTER TABLE gym_services ADD CONSTRAINT FKplonahyuvdlyn0vieka3jbqyr FOREIGN KEY (created_by_user_id) REFERENCES users;
+ALTER TABLE gym_services ADD CONSTRAINT FK9q52g53dw85n2bmccrjju3x84 FOREIGN KEY (location_id) REFERENCES locations;
+ALTER TABLE member_credits ADD CONSTRAINT FKosemns064mqx7xs2e3ww27h4p FOREIGN KEY (gym_service_id) REFERENCES gym_services;
+ALTER TABLE member_credits ADD CONSTRAINT FKjrrr7op01y734m2dbnlug8eeg FOREIGN KEY (member_id) REFERENCES users;
+ALTER TABLE member_credits ADD CONSTRAINT FK4o588yjcfgvo8nmich71e4xmg FOREIGN KEY (payment_id) REFERENCES payments;
+ALTER TABLE payments ADD CONSTRAINT FKnv05drt0o2bqgb1xwebi57061 FOREIGN KEY (gym_service_id) REFERENCES gym_services;
+ALTER TABLE payments ADD CONSTRAINT FKkqv8pkak4wp6i2t0dd32twj7p FOREIGN KEY (member_id) REFERENCES users;
+ALTER TABLE users ADD CONSTRAINT FKdk0xfnnthbj8afp1ira6sndte FOREIGN KEY (location_id) REFERENCES locations;
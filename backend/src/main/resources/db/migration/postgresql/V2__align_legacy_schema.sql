@@ -0,0 +1,145 @@
+-- Adds everything the entities gained since V1. Databases that ddl-auto
+-- kept growing after that already have some of it, so every step is
+-- written to be a no-op when its object exists.
+
+CREATE TABLE IF NOT EXISTS appointments_archive (
+    active boolean not null,
+    current_bookings integer not null,
+    max_capacity integer not null,
+    archived_at timestamp(6) not null,
+    created_at timestamp(6) not null,
+    created_by_user_id bigint not null,
+    end_time timestamp(6) not null,
+    gym_service_id bigint not null,
+    id bigint not null,
+    location_id bigint not null,
+    start_time timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    gym_service_name varchar(255) not null,
+    location_name varchar(255) not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    appointment_id bigint not null,
+    archived_at timestamp(6) not null,
+    cancelled_at timestamp(6),
+    created_at timestamp(6) not null,
+    id bigint not null,
+    member_id bigint not null,
+    used_credit_id bigint not null,
+    status varchar(255) not null check (status in ('CONFIRMED','CANCELLED')),
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    last_id bigint not null,
+    updated_at timestamp(6) not null,
+    job varchar(100) not null,
+    primary key (job)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_checkpoints (
+    last_event_id bigint not null,
+    updated_at timestamp(6) not null,
+    consumer varchar(100) not null,
+    primary key (consumer)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    aggregate_id bigint not null,
+    created_at timestamp(6) not null,
+    id bigint not null,
+    aggregate_type varchar(50) not null,
+    event_type varchar(50) not null,
+    payload TEXT not null,
+    primary key (id)
+);
+
+CREATE TABLE IF NOT EXISTS revenue_rollups (
+    gross_amount numeric(14,2) not null,
+    refunded_amount numeric(14,2) not null,
+    revenue_date date not null,
+    gym_service_id bigint not null,
+    id bigint not null,
+    location_id bigint not null,
+    payments bigint not null,
+    refunds bigint not null,
+    primary key (id),
+    constraint uk_revenue_rollup_location_service_day unique (location_id, gym_service_id, revenue_date)
+);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    expires_at timestamp(6) not null,
+    jti varchar(36) not null,
+    primary key (jti)
+);
+
+CREATE TABLE IF NOT EXISTS stripe_events (
+    attempts integer not null,
+    next_attempt_at timestamp(6) not null,
+    processed_at timestamp(6),
+    received_at timestamp(6) not null,
+    stripe_created_at bigint not null,
+    status varchar(20) not null check (status in ('RECEIVED','PROCESSING','PROCESSED','IGNORED','FAILED')),
+    type varchar(100) not null,
+    last_error varchar(1000),
+    id varchar(255) not null,
+    payload TEXT not null,
+    payment_intent_id varchar(255),
+    primary key (id)
+);
+
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+ALTER TABLE member_credits ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+
+-- Existing users start at the first token version, so tokens they already
+-- hold stay valid until they next log out
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version integer DEFAULT 0;
+UPDATE users SET token_version = 0 WHERE token_version IS NULL;
+
+-- Reserved payments have no intent until the gateway answers; ddl-auto
+-- never relaxed the original NOT NULL
+ALTER TABLE payments ALTER COLUMN stripe_payment_intent_id DROP NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_appointment_end_time_id ON appointments (end_time, id);
+CREATE INDEX IF NOT EXISTS idx_appointment_archive_location_start ON appointments_archive (location_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_booking_archive_member ON bookings_archive (member_id);
+CREATE INDEX IF NOT EXISTS idx_booking_archive_appointment ON bookings_archive (appointment_id);
+CREATE INDEX IF NOT EXISTS idx_payment_member_created ON payments (member_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_payment_status_id ON payments (status, id);
+CREATE INDEX IF NOT EXISTS idx_revenue_rollup_day ON revenue_rollups (revenue_date);
+CREATE INDEX IF NOT EXISTS idx_stripe_events_status_next_attempt ON stripe_events (status, next_attempt_at);
+
+-- Ids come from the pooled sequences now. Tables from V1 carry serial
+-- defaults, and their sequences may trail the existing ids.
+DO $$
+DECLARE
+    tbl text;
+    seq text;
+    increment integer;
+    max_id bigint;
+    last_value bigint;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['locations', 'users', 'gym_services', 'appointments', 'payments',
+                               'member_credits', 'bookings', 'revenue_rollups', 'outbox_events']
+    LOOP
+        seq := tbl || '_seq';
+        increment := CASE WHEN tbl = 'outbox_events' THEN 1 ELSE 50 END;
+
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', tbl);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', tbl);
+        EXECUTE format('DROP SEQUENCE IF EXISTS %I', tbl || '_id_seq');
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY %s', seq, increment);
+
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', tbl) INTO max_id;
+        SELECT s.last_value INTO last_value FROM pg_sequences s
+        WHERE s.schemaname = current_schema() AND s.sequencename = seq;
+
+        -- Hibernate hands out the block ending at each nextval, so the next
+        -- value must be a full block past the highest existing id
+        IF max_id > 0 AND (last_value IS NULL OR last_value < max_id) THEN
+            PERFORM setval(seq, max_id + increment, false);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,115 @@
+-- appointments and bookings become monthly range partitions on the
+-- appointment's start time, so time-bounded queries only touch the months
+-- they ask for. bookings carries a copy of the start time as its partition
+-- key; the composite foreign key keeps it in step when an appointment is
+-- rescheduled.
+--
+-- Partitioned tables need the partition key in every unique constraint, so
+-- the primary keys become (id, start time). Ids stay unique through their
+-- sequences, and (appointment_id, member_id) stays unique because an
+-- appointment has exactly one start time.
+
+-- Creates the month's partition of a table partitioned by this migration.
+-- Returns 'created', 'exists', or 'blocked' when rows for that month already
+-- sit in the default partition and have to be moved by hand first.
+CREATE FUNCTION gymhub_create_monthly_partition(parent text, month date) RETURNS text
+LANGUAGE plpgsql AS $$
+DECLARE
+    first_day date := date_trunc('month', month)::date;
+    partition_name text := parent || '_p' || to_char(first_day, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN 'exists';
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, parent, first_day, (first_day + interval '1 month')::date);
+    RETURN 'created';
+EXCEPTION
+    WHEN check_violation THEN
+        RAISE WARNING 'Default partition of % has rows for %; partition not created', parent, first_day;
+        RETURN 'blocked';
+END $$;
+
+ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+ALTER TABLE bookings_unpartitioned RENAME CONSTRAINT bookings_pkey TO bookings_unpartitioned_pkey;
+ALTER TABLE bookings_unpartitioned DROP CONSTRAINT uk_booking_appointment_member;
+
+ALTER TABLE appointments RENAME TO appointments_unpartitioned;
+ALTER TABLE appointments_unpartitioned RENAME CONSTRAINT appointments_pkey TO appointments_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_appointment_end_time_id;
+
+CREATE TABLE appointments (
+    id bigint NOT NULL,
+    start_time timestamp(6) NOT NULL,
+    end_time timestamp(6) NOT NULL,
+    location_id bigint NOT NULL REFERENCES locations,
+    gym_service_id bigint NOT NULL REFERENCES gym_services,
+    max_capacity integer NOT NULL,
+    current_bookings integer NOT NULL,
+    created_by_user_id bigint NOT NULL REFERENCES users,
+    active boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    version bigint DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id, start_time)
+) PARTITION BY RANGE (start_time);
+
+CREATE TABLE bookings (
+    id bigint NOT NULL,
+    appointment_id bigint NOT NULL,
+    appointment_start_time timestamp(6) NOT NULL,
+    member_id bigint NOT NULL REFERENCES users,
+    used_credit_id bigint NOT NULL REFERENCES member_credits,
+    status varchar(255) NOT NULL CHECK (status IN ('CONFIRMED', 'CANCELLED')),
+    created_at timestamp(6) NOT NULL,
+    cancelled_at timestamp(6),
+    version bigint,
+    PRIMARY KEY (id, appointment_start_time),
+    CONSTRAINT uk_booking_appointment_member UNIQUE (appointment_id, member_id, appointment_start_time),
+    CONSTRAINT fk_booking_appointment FOREIGN KEY (appointment_id, appointment_start_time)
+        REFERENCES appointments (id, start_time) ON UPDATE CASCADE
+) PARTITION BY RANGE (appointment_start_time);
+
+-- Catch rows outside the months created ahead so an insert never fails
+CREATE TABLE appointments_default PARTITION OF appointments DEFAULT;
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE INDEX idx_appointment_end_time_id ON appointments (end_time, id);
+CREATE INDEX idx_appointment_location_start ON appointments (location_id, start_time);
+CREATE INDEX idx_booking_member_status ON bookings (member_id, status);
+
+-- One partition per month from the oldest appointment to a year ahead;
+-- PartitionMaintenanceJob keeps extending the horizon from here
+DO $$
+DECLARE
+    month date;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(start_time), now()))::date INTO month
+    FROM appointments_unpartitioned;
+
+    WHILE month <= (date_trunc('month', now()) + interval '12 months')::date LOOP
+        PERFORM gymhub_create_monthly_partition('appointments', month);
+        PERFORM gymhub_create_monthly_partition('bookings', month);
+        month := (month + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO appointments (id, start_time, end_time, location_id, gym_service_id, max_capacity,
+                          current_bookings, created_by_user_id, active, created_at, updated_at, version)
+SELECT id, start_time, end_time, location_id, gym_service_id, max_capacity,
+       current_bookings, created_by_user_id, active, created_at, updated_at, version
+FROM appointments_unpartitioned;
+
+INSERT INTO bookings (id, appointment_id, appointment_start_time, member_id, used_credit_id,
+                      status, created_at, cancelled_at, version)
+SELECT b.id, b.appointment_id, a.start_time, b.member_id, b.used_credit_id,
+       b.status, b.created_at, b.cancelled_at, b.version
+FROM bookings_unpartitioned b
+JOIN appointments_unpartitioned a ON a.id = b.appointment_id;
+
+DROP TABLE bookings_unpartitioned;
+DROP TABLE appointments_unpartitioned;
+
+ANALYZE appointments;
+ANALYZE bookings;
@@ -0,0 +1,40 @@
+-- Detaches and drops the monthly partitions of parent that start before
+-- before_month and hold no rows, and returns their names. Once the archive
+-- job has moved a month out, its empty partition only costs planning time
+-- and primary key probes.
+--
+-- Each partition is locked before it is checked, so no row can arrive
+-- between the check and the drop. A partition whose lock is not granted
+-- within lock_timeout is left for the next run. Referencing partitions
+-- have to be dropped first: call it for bookings before appointments.
+CREATE FUNCTION gymhub_drop_empty_partitions(parent text, before_month date) RETURNS SETOF text
+LANGUAGE plpgsql AS $$
+DECLARE
+    partition_name text;
+    empty boolean;
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent::regclass
+          AND c.relname ~ ('^' || parent || '_p[0-9]{4}_[0-9]{2}$')
+          AND to_date(right(c.relname, 7), 'YYYY_MM') < date_trunc('month', before_month)
+        ORDER BY c.relname
+    LOOP
+        BEGIN
+            EXECUTE format('LOCK TABLE %I IN ACCESS EXCLUSIVE MODE', partition_name);
+            EXECUTE format('SELECT NOT EXISTS (SELECT 1 FROM %I)', partition_name) INTO empty;
+            CONTINUE WHEN NOT empty;
+
+            EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+            RETURN NEXT partition_name;
+        EXCEPTION
+            WHEN lock_not_available THEN
+                RAISE WARNING 'Partition % is busy; not dropped', partition_name;
+        END;
+    END LOOP;
+END $$;
@@ -0,0 +1,4 @@
+-- When a refresh spent the token; null for tokens revoked on logout. A
+-- second refresh with the same token shortly after is a concurrent tab,
+-- not a replay.
+ALTER TABLE revoked_tokens ADD COLUMN rotated_at timestamp(6);
@@ -0,0 +1,25 @@
+-- Retry state of the event a consumer is failing on, and the events it was
+-- moved past after running out of attempts.
+
+ALTER TABLE outbox_checkpoints ADD COLUMN failing_event_id bigint;
+ALTER TABLE outbox_checkpoints ADD COLUMN attempts integer DEFAULT 0 NOT NULL;
+ALTER TABLE outbox_checkpoints ADD COLUMN next_attempt_at timestamp(6);
+ALTER TABLE outbox_checkpoints ADD COLUMN last_error varchar(1000);
+
+CREATE SEQUENCE outbox_dead_letters_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_dead_letters (
+    id bigint NOT NULL,
+    consumer varchar(100) NOT NULL,
+    event_id bigint NOT NULL,
+    aggregate_type varchar(50) NOT NULL,
+    aggregate_id bigint NOT NULL,
+    event_type varchar(50) NOT NULL,
+    payload TEXT NOT NULL,
+    attempts integer NOT NULL,
+    last_error varchar(1000),
+    dead_lettered_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_outbox_dead_letter_consumer ON outbox_dead_letters (consumer, event_id);
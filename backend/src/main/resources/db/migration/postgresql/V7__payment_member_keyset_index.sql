@@ -0,0 +1,5 @@
+-- Member payment pages seek on (created_at, id); with id in the index the
+-- tie-break is resolved in the index instead of on heap rows. The old index
+-- is a prefix of the new one.
+CREATE INDEX idx_payment_member_created_id ON payments (member_id, created_at, id);
+DROP INDEX idx_payment_member_created;
@@ -0,0 +1,6 @@
+-- Every instance polls for revocations made since its last poll: new
+-- revoked tokens by revoked_at, and users whose token version or active
+-- flag changed by updated_at.
+ALTER TABLE revoked_tokens ADD COLUMN revoked_at timestamp(6) NOT NULL DEFAULT now();
+CREATE INDEX idx_revoked_token_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX idx_user_updated_at ON users (updated_at);
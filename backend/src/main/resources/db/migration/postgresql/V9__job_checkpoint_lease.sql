@@ -0,0 +1,3 @@
+-- Lease held by the instance running a job, so only one runs it at a time.
+
+ALTER TABLE job_checkpoints ADD COLUMN lease_until timestamp(6);
@@ -0,0 +1,124 @@
+package com.andrea360.gymhub.config;
+
+import com.andrea360.gymhub.entity.Role;
+import com.andrea360.gymhub.entity.User;
+import com.andrea360.gymhub.repository.UserRepository;
+import com.andrea360.gymhub.security.UserDetailsImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routing against two H2 databases: the replica gets the schema but never
+ * the data, so it stands in for one that has not caught up yet. Reads go to
+ * it until a write pins the client to the primary through the cookie.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingTests.PRIMARY_URL,
+        "gymhub.datasource.routing.enabled=true",
+        "gymhub.datasource.routing.replicas[0].name=replica-1",
+        "gymhub.datasource.routing.replicas[0].url=" + ReadReplicaRoutingTests.REPLICA_URL,
+        "gymhub.datasource.routing.replicas[0].username=sa",
+        "gymhub.datasource.routing.replicas[0].password=",
+        "gymhub.datasource.routing.lag-query=SELECT 0",
+        "gymhub.datasource.routing.lag-check-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadReplicaRoutingTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User admin;
+
+    @BeforeAll
+    void copySchemaToReplica() throws Exception {
+        try (Connection primary = primaryDataSource.getConnection();
+             Statement script = primary.createStatement();
+             ResultSet statements = script.executeQuery("SCRIPT NODATA");
+             Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement apply = replica.createStatement()) {
+            while (statements.next()) {
+                apply.execute(statements.getString(1));
+            }
+        }
+
+        admin = userRepository.save(User.builder()
+                .firstName("Ada")
+                .lastName("Admin")
+                .email("routing-admin@test.com")
+                .password("unused")
+                .role(Role.ADMIN)
+                .build());
+    }
+
+    @Test
+    void readsGoToTheReplicaUntilAWritePinsThePrimary() throws Exception {
+        MvcResult created = mockMvc.perform(post("/locations")
+                        .with(user(UserDetailsImpl.withoutPassword(admin)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("name", "Harbour", "address", "Quay 3"))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie pin = created.getResponse().getCookie(ReadYourWritesInterceptor.PIN_COOKIE);
+        assertThat(pin).isNotNull();
+
+        // No server-side state: any instance honours the cookie
+        assertThat(locationNames(get("/locations"))).doesNotContain("Harbour");
+        assertThat(locationNames(get("/locations").cookie(pin))).contains("Harbour");
+
+        Cookie expired = new Cookie(ReadYourWritesInterceptor.PIN_COOKIE, String.valueOf(System.currentTimeMillis() - 1));
+        assertThat(locationNames(get("/locations").cookie(expired))).doesNotContain("Harbour");
+    }
+
+    private List<String> locationNames(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request.with(user(UserDetailsImpl.withoutPassword(admin))))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<String> names = new ArrayList<>();
+        for (JsonNode location : objectMapper.readTree(result.getResponse().getContentAsString())) {
+            names.add(location.get("name").asText());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,165 @@
+package com.andrea360.gymhub.config;
+
+import com.andrea360.gymhub.entity.Role;
+import com.andrea360.gymhub.entity.User;
+import com.andrea360.gymhub.repository.UserRepository;
+import com.andrea360.gymhub.security.JwtUtil;
+import com.andrea360.gymhub.security.UserDetailsImpl;
+import com.andrea360.gymhub.service.MemberNotificationService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SUBSCRIBE authorization over a real STOMP connection: anyone may follow
+ * the appointment topics, only an authenticated session gets its own
+ * notification queue, and nobody gets the broker's raw queues.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:websocket;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WebSocketSubscriptionTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MemberNotificationService memberNotificationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User member;
+
+    @BeforeAll
+    void seed() {
+        member = userRepository.save(User.builder()
+                .firstName("Sam")
+                .lastName("Socket")
+                .email("socket@test.com")
+                .password("unused")
+                .role(Role.MEMBER)
+                .build());
+    }
+
+    @Test
+    void anonymousSessionGetsPublicTopicsOnly() throws Exception {
+        Client client = connect(null);
+
+        BlockingQueue<String> updates = client.subscribe("/topic/appointments/7");
+        awaitSubscribed(updates, "/topic/appointments/7");
+
+        client.subscribe("/user/queue/notifications");
+        assertThat(client.errors.poll(5, TimeUnit.SECONDS)).contains("/user/queue/notifications");
+    }
+
+    @Test
+    void memberReceivesOwnNotificationsButNotRawQueues() throws Exception {
+        Client client = connect(jwtUtil.generateToken(UserDetailsImpl.withoutPassword(member)));
+
+        BlockingQueue<String> notifications = client.subscribe("/user/queue/notifications");
+        String received = null;
+        for (int i = 0; i < 50 && received == null; i++) {
+            memberNotificationService.notifyCreditsChanged(member.getId(), member.getEmail(), 3L, 4L);
+            received = notifications.poll(100, TimeUnit.MILLISECONDS);
+        }
+        assertThat(received).contains("CREDITS_UPDATED");
+
+        // What /user/queue/notifications resolves to inside the broker
+        client.subscribe("/queue/notifications-user1");
+        assertThat(client.errors.poll(5, TimeUnit.SECONDS)).contains("/queue/notifications-user");
+    }
+
+    private void awaitSubscribed(BlockingQueue<String> messages, String destination) throws InterruptedException {
+        // The SUBSCRIBE is asynchronous; send until the first message arrives
+        String received = null;
+        for (int i = 0; i < 50 && received == null; i++) {
+            messagingTemplate.convertAndSend(destination, "ping");
+            received = messages.poll(100, TimeUnit.MILLISECONDS);
+        }
+        assertThat(received).isEqualTo("ping");
+    }
+
+    private Client connect(String token) throws Exception {
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        // Payloads are JSON or text; keep them as raw bytes
+        stompClient.setMessageConverter(new SimpleMessageConverter());
+
+        StompHeaders connectHeaders = new StompHeaders();
+        if (token != null) {
+            connectHeaders.add("Authorization", "Bearer " + token);
+        }
+        Client client = new Client();
+        client.session = stompClient.connectAsync("http://localhost:" + port + "/ws",
+                new WebSocketHttpHeaders(), connectHeaders, client).get(10, TimeUnit.SECONDS);
+        return client;
+    }
+
+    private static class Client extends StompSessionHandlerAdapter {
+
+        private final BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+        private StompSession session;
+
+        BlockingQueue<String> subscribe(String destination) {
+            BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+            session.subscribe(destination, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return byte[].class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    messages.add(new String((byte[]) payload, StandardCharsets.UTF_8));
+                }
+            });
+            return messages;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            // Only ERROR frames reach the session handler
+            errors.add(String.valueOf(headers.getFirst("message")));
+        }
+
+        @Override
+        public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                    byte[] payload, Throwable exception) {
+            errors.add(String.valueOf(exception.getMessage()));
+        }
+    }
+}
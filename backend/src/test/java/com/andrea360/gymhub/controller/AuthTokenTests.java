@@ -0,0 +1,191 @@
+package com.andrea360.gymhub.controller;
+
+import com.andrea360.gymhub.entity.Location;
+import com.andrea360.gymhub.entity.RevokedToken;
+import com.andrea360.gymhub.entity.Role;
+import com.andrea360.gymhub.entity.User;
+import com.andrea360.gymhub.repository.LocationRepository;
+import com.andrea360.gymhub.repository.RevokedTokenRepository;
+import com.andrea360.gymhub.repository.UserRepository;
+import com.andrea360.gymhub.security.JwtUtil;
+import com.andrea360.gymhub.security.TokenRevocationList;
+import com.andrea360.gymhub.security.TokenVersionRegistry;
+import com.andrea360.gymhub.security.UserDetailsImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Access token failures answer 401, which is what makes the client refresh,
+ * refresh tokens rotate once with a short grace for concurrent tabs, and
+ * revocations written by other instances are picked up by polling.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuthTokenTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    private User member;
+
+    @BeforeAll
+    void seed() {
+        Location location = locationRepository.save(Location.builder().name("Uptown").address("High St 2").build());
+        member = userRepository.save(User.builder()
+                .firstName("Rita")
+                .lastName("Refresh")
+                .email("refresh@test.com")
+                .password("unused")
+                .role(Role.MEMBER)
+                .location(location)
+                .build());
+    }
+
+    @Test
+    void missingOrExpiredAccessTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/appointments"))
+                .andExpect(status().isUnauthorized());
+
+        String expired = Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(member.getEmail())
+                .claim(JwtUtil.CLAIM_USER_ID, member.getId())
+                .claim(JwtUtil.CLAIM_ROLE, member.getRole().name())
+                .issuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .expiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        mockMvc.perform(get("/appointments").header("Authorization", "Bearer " + expired))
+                .andExpect(status().isUnauthorized());
+
+        String valid = jwtUtil.generateToken(UserDetailsImpl.withoutPassword(member));
+        mockMvc.perform(get("/appointments").header("Authorization", "Bearer " + valid))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void refreshTokenIsSpentOnceWithGraceForConcurrentTabs() throws Exception {
+        String refreshToken = jwtUtil.generateRefreshToken(UserDetailsImpl.withoutPassword(member));
+
+        String rotated = refresh(refreshToken, 200);
+        // A second tab racing the first gets a pair of its own
+        refresh(refreshToken, 200);
+
+        // Past the grace period the same token is a replay and ends the session everywhere
+        String jti = jwtUtil.parseToken(refreshToken).getId();
+        revokedTokenRepository.findById(jti).ifPresent(token -> {
+            token.setRotatedAt(LocalDateTime.now().minusMinutes(5));
+            revokedTokenRepository.save(token);
+        });
+        refresh(refreshToken, 401);
+        refresh(rotated, 401);
+    }
+
+    @Test
+    void revocationsMadeByAnotherInstanceArePolled() throws Exception {
+        User loggedOutUser = saveMember("logged-out@test.com");
+        User other = saveMember("other-instance@test.com");
+        String loggedOut = jwtUtil.generateToken(UserDetailsImpl.withoutPassword(loggedOutUser));
+        String bumped = jwtUtil.generateToken(UserDetailsImpl.withoutPassword(other));
+
+        // Written straight to the database, as another instance would
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jwtUtil.parseToken(loggedOut).getId())
+                .expiresAt(LocalDateTime.now().plusMinutes(15))
+                .revokedAt(LocalDateTime.now())
+                .build());
+        other.setTokenVersion(1);
+        userRepository.save(other);
+
+        mockMvc.perform(get("/appointments").header("Authorization", "Bearer " + loggedOut))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/appointments").header("Authorization", "Bearer " + bumped))
+                .andExpect(status().isOk());
+
+        tokenRevocationList.poll();
+        tokenVersionRegistry.poll();
+
+        mockMvc.perform(get("/appointments").header("Authorization", "Bearer " + loggedOut))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/appointments").header("Authorization", "Bearer " + bumped))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private User saveMember(String email) {
+        return userRepository.save(User.builder()
+                .firstName("Olga")
+                .lastName("Other")
+                .email(email)
+                .password("unused")
+                .role(Role.MEMBER)
+                .location(member.getLocation())
+                .build());
+    }
+
+    private String refresh(String refreshToken, int expectedStatus) throws Exception {
+        MvcResult result = mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshBody(refreshToken))))
+                .andReturn();
+        assertThat(result.getResponse().getStatus())
+                .as(result.getResponse().getContentAsString())
+                .isEqualTo(expectedStatus);
+        if (expectedStatus != 200) {
+            return null;
+        }
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        return body.get("refreshToken").asText();
+    }
+
+    private record RefreshBody(String refreshToken) {
+    }
+}
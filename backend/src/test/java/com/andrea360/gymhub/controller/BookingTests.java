@@ -0,0 +1,158 @@
+package com.andrea360.gymhub.controller;
+
+import com.andrea360.gymhub.entity.Appointment;
+import com.andrea360.gymhub.entity.GymService;
+import com.andrea360.gymhub.entity.Location;
+import com.andrea360.gymhub.entity.MemberCredit;
+import com.andrea360.gymhub.entity.Payment;
+import com.andrea360.gymhub.entity.Role;
+import com.andrea360.gymhub.entity.User;
+import com.andrea360.gymhub.repository.AppointmentRepository;
+import com.andrea360.gymhub.repository.GymServiceRepository;
+import com.andrea360.gymhub.repository.LocationRepository;
+import com.andrea360.gymhub.repository.MemberCreditRepository;
+import com.andrea360.gymhub.repository.PaymentRepository;
+import com.andrea360.gymhub.repository.UserRepository;
+import com.andrea360.gymhub.security.UserDetailsImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Booking writes whose constraint failures must surface as client errors
+ * even though ids come from a pooled sequence and inserts are deferred.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GymServiceRepository gymServiceRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MemberCreditRepository memberCreditRepository;
+
+    private User member;
+    private GymService gymService;
+    private Appointment appointment;
+
+    @BeforeAll
+    void seed() {
+        Location location = locationRepository.save(Location.builder().name("Riverside").address("Bank 2").build());
+        member = userRepository.save(User.builder()
+                .firstName("Rita")
+                .lastName("Rebook")
+                .email("rebook@test.com")
+                .password("unused")
+                .role(Role.MEMBER)
+                .location(location)
+                .build());
+        gymService = gymServiceRepository.save(GymService.builder()
+                .name("Pilates")
+                .price(new BigDecimal("15.00"))
+                .location(location)
+                .createdBy(member)
+                .build());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(3).withNano(0);
+        appointment = appointmentRepository.save(Appointment.builder()
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .location(location)
+                .gymService(gymService)
+                .maxCapacity(10)
+                .currentBookings(0)
+                .createdBy(member)
+                .build());
+
+        Payment payment = paymentRepository.save(Payment.builder()
+                .member(member)
+                .gymService(gymService)
+                .quantity(2)
+                .amount(new BigDecimal("30.00"))
+                .status(Payment.PaymentStatus.COMPLETED)
+                .completedAt(LocalDateTime.now())
+                .build());
+        for (int i = 0; i < 2; i++) {
+            memberCreditRepository.save(MemberCredit.builder()
+                    .member(member)
+                    .gymService(gymService)
+                    .payment(payment)
+                    .used(false)
+                    .build());
+        }
+    }
+
+    @Test
+    void rebookingACancelledAppointmentIsABadRequest() throws Exception {
+        MvcResult booked = mockMvc.perform(book())
+                .andExpect(status().isCreated())
+                .andReturn();
+        long bookingId = objectMapper.readTree(booked.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(delete("/bookings/{id}", bookingId).with(user(UserDetailsImpl.withoutPassword(member))))
+                .andExpect(status().isNoContent());
+
+        // The cancelled row still holds uk_booking_appointment_member
+        mockMvc.perform(book()).andExpect(status().isBadRequest());
+
+        // Nothing of the failed attempt was committed
+        assertThat(availableCredits()).isEqualTo(2);
+        assertThat(appointmentRepository.findById(appointment.getId()).orElseThrow().getCurrentBookings()).isZero();
+    }
+
+    private RequestBuilder book() throws Exception {
+        return post("/bookings")
+                .with(user(UserDetailsImpl.withoutPassword(member)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("appointmentId", appointment.getId())));
+    }
+
+    private long availableCredits() throws Exception {
+        MvcResult result = mockMvc.perform(get("/payments/credits/{id}", gymService.getId())
+                        .with(user(UserDetailsImpl.withoutPassword(member))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("availableCredits").asLong();
+    }
+}
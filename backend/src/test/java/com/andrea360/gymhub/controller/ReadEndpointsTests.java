@@ -0,0 +1,228 @@
+package com.andrea360.gymhub.controller;
+
+import com.andrea360.gymhub.entity.Appointment;
+import com.andrea360.gymhub.entity.Booking;
+import com.andrea360.gymhub.entity.GymService;
+import com.andrea360.gymhub.entity.Location;
+import com.andrea360.gymhub.entity.MemberCredit;
+import com.andrea360.gymhub.entity.Payment;
+import com.andrea360.gymhub.entity.Role;
+import com.andrea360.gymhub.entity.User;
+import com.andrea360.gymhub.repository.AppointmentRepository;
+import com.andrea360.gymhub.repository.BookingRepository;
+import com.andrea360.gymhub.repository.GymServiceRepository;
+import com.andrea360.gymhub.repository.LocationRepository;
+import com.andrea360.gymhub.repository.MemberCreditRepository;
+import com.andrea360.gymhub.repository.PaymentRepository;
+import com.andrea360.gymhub.repository.UserRepository;
+import com.andrea360.gymhub.security.UserDetailsImpl;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Calls every read endpoint with open-in-view disabled, so each one must
+ * load what its response needs inside its own transaction. Entities are
+ * saved through the repositories and come back detached, as in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadEndpointsTests {
+
+    private static final String PASSWORD = "secret123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GymServiceRepository gymServiceRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MemberCreditRepository memberCreditRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Location location;
+    private User admin;
+    private User employee;
+    private User member;
+    private GymService gymService;
+    private Appointment appointment;
+
+    @BeforeAll
+    void seed() {
+        location = locationRepository.save(Location.builder().name("Downtown").address("Main St 1").build());
+        admin = userRepository.save(newUser("Ada", "Admin", "admin@test.com", Role.ADMIN, null));
+        employee = userRepository.save(newUser("Emil", "Employee", "employee@test.com", Role.EMPLOYEE, location));
+        member = userRepository.save(newUser("Mia", "Member", "member@test.com", Role.MEMBER, location));
+
+        gymService = gymServiceRepository.save(GymService.builder()
+                .name("Yoga")
+                .description("Morning flow")
+                .price(new BigDecimal("10.00"))
+                .location(location)
+                .createdBy(employee)
+                .build());
+
+        LocalDateTime start = LocalDateTime.now().plusDays(2).withNano(0);
+        appointment = appointmentRepository.save(Appointment.builder()
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .location(location)
+                .gymService(gymService)
+                .maxCapacity(10)
+                .currentBookings(1)
+                .createdBy(employee)
+                .build());
+
+        Payment payment = paymentRepository.save(Payment.builder()
+                .member(member)
+                .gymService(gymService)
+                .quantity(2)
+                .amount(new BigDecimal("20.00"))
+                .status(Payment.PaymentStatus.COMPLETED)
+                .completedAt(LocalDateTime.now())
+                .build());
+
+        MemberCredit used = memberCreditRepository.save(credit(payment, true));
+        memberCreditRepository.save(credit(payment, false));
+
+        bookingRepository.save(Booking.builder()
+                .appointment(appointment)
+                .appointmentStartTime(appointment.getStartTime())
+                .member(member)
+                .usedCredit(used)
+                .status(Booking.BookingStatus.CONFIRMED)
+                .build());
+    }
+
+    @Test
+    void appointmentEndpoints() throws Exception {
+        expectOk(get("/appointments").with(signedInAs(member)));
+        expectOk(get("/appointments/location/{id}", location.getId()).with(signedInAs(member)));
+        expectOk(get("/appointments/location/{id}/upcoming", location.getId()).with(signedInAs(member)));
+        expectOk(get("/appointments/available").with(signedInAs(member)));
+        expectOk(get("/appointments/{id}", appointment.getId()).with(signedInAs(member)));
+        expectOk(get("/appointments/history").with(signedInAs(employee))
+                .param("locationId", location.getId().toString())
+                .param("from", LocalDate.now().minusDays(30).toString())
+                .param("to", LocalDate.now().toString()));
+    }
+
+    @Test
+    void serviceAndLocationEndpoints() throws Exception {
+        expectOk(get("/services").with(signedInAs(member)));
+        expectOk(get("/services/location/{id}", location.getId()).with(signedInAs(member)));
+        expectOk(get("/services/{id}", gymService.getId()).with(signedInAs(member)));
+        expectOk(get("/locations").with(signedInAs(member)));
+        expectOk(get("/locations/{id}", location.getId()).with(signedInAs(member)));
+    }
+
+    @Test
+    void bookingEndpoints() throws Exception {
+        expectOk(get("/bookings/my").with(signedInAs(member)));
+        expectOk(get("/bookings/my/history").with(signedInAs(member)));
+        expectOk(get("/bookings/appointment/{id}", appointment.getId()).with(signedInAs(employee)));
+    }
+
+    @Test
+    void paymentEndpoints() throws Exception {
+        expectOk(get("/payments/my").with(signedInAs(member)));
+        expectOk(get("/payments/credits").with(signedInAs(member)));
+        expectOk(get("/payments/credits/{id}", gymService.getId()).with(signedInAs(member)));
+    }
+
+    @Test
+    void userEndpoints() throws Exception {
+        expectOk(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"member@test.com\",\"password\":\"" + PASSWORD + "\"}"));
+        expectOk(get("/auth/me").with(signedInAs(member)));
+        expectOk(get("/members/location/{id}", location.getId()).with(signedInAs(employee)));
+        expectOk(get("/admin/employees").with(signedInAs(admin)));
+        expectOk(get("/admin/employees/location/{id}", location.getId()).with(signedInAs(admin)));
+    }
+
+    @Test
+    void revenueEndpoints() throws Exception {
+        String from = LocalDate.now().minusDays(7).toString();
+        String to = LocalDate.now().toString();
+        expectOk(get("/revenue").with(signedInAs(admin)).param("from", from).param("to", to));
+        expectOk(get("/revenue/top-services").with(signedInAs(admin)).param("from", from).param("to", to));
+        expectOk(get("/revenue/compare").with(signedInAs(admin)).param("from", from).param("to", to));
+    }
+
+    private void expectOk(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        Throwable failure = result.getResolvedException();
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            assertThat(cause).as(result.getRequest().getRequestURI()).isNotInstanceOf(LazyInitializationException.class);
+        }
+        assertThat(result.getResponse().getStatus())
+                .as("%s: %s", result.getRequest().getRequestURI(), result.getResponse().getContentAsString())
+                .isEqualTo(200);
+    }
+
+    private User newUser(String firstName, String lastName, String email, Role role, Location location) {
+        return User.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(role)
+                .location(location)
+                .build();
+    }
+
+    private MemberCredit credit(Payment payment, boolean used) {
+        return MemberCredit.builder()
+                .member(member)
+                .gymService(gymService)
+                .payment(payment)
+                .used(used)
+                .usedAt(used ? LocalDateTime.now() : null)
+                .build();
+    }
+
+    private static RequestPostProcessor signedInAs(User user) {
+        return user(UserDetailsImpl.withoutPassword(user));
+    }
+}
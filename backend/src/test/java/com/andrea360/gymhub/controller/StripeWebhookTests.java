@@ -0,0 +1,221 @@
+package com.andrea360.gymhub.controller;
+
+import com.andrea360.gymhub.entity.GymService;
+import com.andrea360.gymhub.entity.Location;
+import com.andrea360.gymhub.entity.Payment;
+import com.andrea360.gymhub.entity.Role;
+import com.andrea360.gymhub.entity.StripeEvent;
+import com.andrea360.gymhub.entity.User;
+import com.andrea360.gymhub.repository.GymServiceRepository;
+import com.andrea360.gymhub.repository.LocationRepository;
+import com.andrea360.gymhub.repository.MemberCreditRepository;
+import com.andrea360.gymhub.repository.PaymentRepository;
+import com.andrea360.gymhub.repository.StripeEventRepository;
+import com.andrea360.gymhub.repository.UserRepository;
+import com.andrea360.gymhub.service.StripeWebhookService;
+import com.stripe.net.Webhook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Webhook deliveries signed the way Stripe signs them, with the test
+ * profile's secret, through verification, deduplication, the worker lease
+ * and retries with backoff.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:webhooks;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "stripe.webhook.max-attempts=2",
+        "stripe.webhook.poll-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StripeWebhookTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StripeWebhookService stripeWebhookService;
+
+    @Autowired
+    private StripeEventRepository stripeEventRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MemberCreditRepository memberCreditRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GymServiceRepository gymServiceRepository;
+
+    @Value("${stripe.webhook.secret}")
+    private String webhookSecret;
+
+    private User member;
+    private GymService gymService;
+
+    @BeforeAll
+    void seed() {
+        Location location = locationRepository.save(Location.builder().name("Harbour").address("Quay 1").build());
+        member = userRepository.save(User.builder()
+                .firstName("Wanda")
+                .lastName("Webhook")
+                .email("webhook@test.com")
+                .password("unused")
+                .role(Role.MEMBER)
+                .location(location)
+                .build());
+        gymService = gymServiceRepository.save(GymService.builder()
+                .name("Spin")
+                .price(new BigDecimal("12.00"))
+                .location(location)
+                .createdBy(member)
+                .build());
+    }
+
+    @Test
+    void signedEventIsVerifiedStoredOnceAndApplied() throws Exception {
+        Payment payment = pendingPayment("pi_hook_paid");
+        String payload = event("evt_hook_paid", "payment_intent.succeeded", "pi_hook_paid");
+
+        deliver(payload, "t=" + now() + ",v1=" + "0".repeat(64), status().isBadRequest());
+        assertThat(stripeEventRepository.existsById("evt_hook_paid")).isFalse();
+
+        deliver(payload, sign(payload), status().isOk());
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(stripeEventRepository.findById("evt_hook_paid").orElseThrow().getStatus())
+                        .isEqualTo(StripeEvent.StripeEventStatus.PROCESSED));
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus())
+                .isEqualTo(Payment.PaymentStatus.COMPLETED);
+        long credits = memberCreditRepository.count();
+
+        // Stripe redelivers until it sees a 2xx; the copy is acknowledged and dropped
+        deliver(payload, sign(payload), status().isOk());
+        StripeEvent stored = stripeEventRepository.findById("evt_hook_paid").orElseThrow();
+        assertThat(stored.getAttempts()).isEqualTo(1);
+        assertThat(memberCreditRepository.count()).isEqualTo(credits);
+    }
+
+    @Test
+    void leaseKeepsAnEventWithOneWorkerUntilItExpires() {
+        // The column keeps microseconds; a rounded-up nextAttemptAt would not be due yet
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        stripeEventRepository.save(StripeEvent.builder()
+                .id("evt_hook_lease")
+                .type("customer.created")
+                .payload("{}")
+                .stripeCreatedAt(now.minusMinutes(1).toEpochSecond(ZoneOffset.UTC))
+                .nextAttemptAt(now)
+                .build());
+
+        assertThat(stripeEventRepository.claim("evt_hook_lease", now, now.plusMinutes(5))).isEqualTo(1);
+        assertThat(stripeEventRepository.claim("evt_hook_lease", now, now.plusMinutes(5))).isZero();
+
+        // A worker that died holding the lease: once it runs out, another takes over
+        LocalDateTime later = now.plusMinutes(6);
+        assertThat(stripeEventRepository.claim("evt_hook_lease", later, later.plusMinutes(5))).isEqualTo(1);
+        assertThat(stripeEventRepository.findById("evt_hook_lease").orElseThrow().getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void failingEventIsRetriedWithBackoffThenMarkedFailed() throws Exception {
+        String payload = event("evt_hook_orphan", "payment_intent.succeeded", "pi_hook_unknown");
+
+        deliver(payload, sign(payload), status().isOk());
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(stripeEventRepository.findById("evt_hook_orphan").orElseThrow().getLastError())
+                        .isNotNull());
+        StripeEvent failed = stripeEventRepository.findById("evt_hook_orphan").orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(StripeEvent.StripeEventStatus.RECEIVED);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(LocalDateTime.now());
+
+        // Not due yet: the poller leaves it alone
+        stripeWebhookService.processDueEvents();
+        Thread.sleep(500);
+        assertThat(stripeEventRepository.findById("evt_hook_orphan").orElseThrow().getAttempts()).isEqualTo(1);
+
+        // Once the backoff has passed, the last allowed attempt fails for good
+        failed.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        stripeEventRepository.save(failed);
+        stripeWebhookService.processDueEvents();
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(stripeEventRepository.findById("evt_hook_orphan").orElseThrow().getStatus())
+                        .isEqualTo(StripeEvent.StripeEventStatus.FAILED));
+        assertThat(stripeEventRepository.findById("evt_hook_orphan").orElseThrow().getAttempts()).isEqualTo(2);
+    }
+
+    private Payment pendingPayment(String intentId) {
+        return paymentRepository.save(Payment.builder()
+                .member(member)
+                .gymService(gymService)
+                .quantity(2)
+                .amount(new BigDecimal("24.00"))
+                .stripePaymentIntentId(intentId)
+                .build());
+    }
+
+    private void deliver(String payload, String signature, ResultMatcher expectedStatus) throws Exception {
+        mockMvc.perform(post("/payments/webhook")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Stripe-Signature", signature)
+                        .content(payload))
+                .andExpect(expectedStatus);
+    }
+
+    private String sign(String payload) throws Exception {
+        long timestamp = now();
+        return "t=" + timestamp + ",v1=" + Webhook.Util.computeHmacSha256(webhookSecret, timestamp + "." + payload);
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static String event(String id, String type, String intentId) {
+        return """
+                {
+                  "id": "%s",
+                  "object": "event",
+                  "type": "%s",
+                  "created": %d,
+                  "livemode": false,
+                  "data": {
+                    "object": {
+                      "id": "%s",
+                      "object": "payment_intent",
+                      "status": "succeeded"
+                    }
+                  }
+                }
+                """.formatted(id, type, now(), intentId);
+    }
+}
@@ -0,0 +1,154 @@
+package com.andrea360.gymhub.repository;
+
+import com.andrea360.gymhub.entity.GymService;
+import com.andrea360.gymhub.entity.Location;
+import com.andrea360.gymhub.entity.MemberCredit;
+import com.andrea360.gymhub.entity.Payment;
+import com.andrea360.gymhub.entity.Role;
+import com.andrea360.gymhub.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Saves MemberCredit rows with saveAll in one transaction, once with JDBC
+ * batching off and once with batches of 50, and prints the statements
+ * Hibernate prepared and the rows per second for each.
+ * <p>
+ * Not part of the test suite (the class name doesn't match surefire's
+ * includes); run it explicitly:
+ * <pre>
+ *   mvn test -Dtest=MemberCreditBatchInsertBenchmark
+ * </pre>
+ * Against PostgreSQL, with the docker profile and its Flyway schema (the
+ * rows it adds are deleted afterwards):
+ * <pre>
+ *   STRIPE_SECRET_KEY=sk_test_x mvn test -Dtest=MemberCreditBatchInsertBenchmark \
+ *     -Dbenchmark.profile=docker \
+ *     -Dspring.datasource.url='jdbc:postgresql://localhost:5432/gymhubdb?reWriteBatchedInserts=true'
+ * </pre>
+ * {@code -Dbenchmark.rows} and {@code -Dbenchmark.runs} change the row count
+ * (10,000) and how many timed runs follow the warm-up run (3).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles(resolver = MemberCreditBatchInsertBenchmark.ProfileResolver.class)
+class MemberCreditBatchInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000);
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 3);
+    private static final int BATCH_SIZE = 50;
+
+    static class ProfileResolver implements ActiveProfilesResolver {
+
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            return new String[]{System.getProperty("benchmark.profile", "test")};
+        }
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GymServiceRepository gymServiceRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MemberCreditRepository memberCreditRepository;
+
+    @Test
+    void saveAllMemberCredits() {
+        Location location = locationRepository.save(Location.builder().name("Bench").address("Bench St 1").build());
+        User member = userRepository.save(User.builder()
+                .firstName("Bench")
+                .lastName("Member")
+                .email("bench-" + UUID.randomUUID() + "@test.com")
+                .password("unused")
+                .role(Role.MEMBER)
+                .location(location)
+                .build());
+        GymService gymService = gymServiceRepository.save(GymService.builder()
+                .name("Bench class")
+                .price(new BigDecimal("10.00"))
+                .location(location)
+                .createdBy(member)
+                .build());
+        Payment payment = paymentRepository.save(Payment.builder()
+                .member(member)
+                .gymService(gymService)
+                .quantity(ROWS)
+                .amount(new BigDecimal("10.00"))
+                .status(Payment.PaymentStatus.COMPLETED)
+                .stripePaymentIntentId("pi_bench_" + UUID.randomUUID())
+                .build());
+
+        try {
+            for (int batchSize : new int[]{1, BATCH_SIZE}) {
+                // The first run warms up the JIT and the connection pool
+                run(batchSize, member, gymService, payment);
+                for (int i = 1; i <= RUNS; i++) {
+                    Result result = run(batchSize, member, gymService, payment);
+                    System.out.printf("batch_size=%-3d run %d: %,d rows, %,d statements, %,d ms, %,.0f rows/s%n",
+                            batchSize, i, ROWS, result.statements(), result.millis(),
+                            ROWS * 1000.0 / Math.max(result.millis(), 1));
+                }
+            }
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.createQuery("DELETE FROM MemberCredit c WHERE c.payment.id = :paymentId")
+                        .setParameter("paymentId", payment.getId())
+                        .executeUpdate();
+                paymentRepository.deleteById(payment.getId());
+                gymServiceRepository.deleteById(gymService.getId());
+                userRepository.deleteById(member.getId());
+                locationRepository.deleteById(location.getId());
+            });
+        }
+    }
+
+    private record Result(long statements, long millis) {
+    }
+
+    private Result run(int batchSize, User member, GymService gymService, Payment payment) {
+        List<MemberCredit> credits = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            credits.add(MemberCredit.builder().member(member).gymService(gymService).payment(payment).build());
+        }
+
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            memberCreditRepository.saveAll(credits);
+        });
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(statistics.getPrepareStatementCount(), millis);
+    }
+}
@@ -0,0 +1,127 @@
+package com.andrea360.gymhub.service;
+
+import com.andrea360.gymhub.entity.OutboxCheckpoint;
+import com.andrea360.gymhub.entity.OutboxDeadLetter;
+import com.andrea360.gymhub.entity.OutboxEvent;
+import com.andrea360.gymhub.repository.OutboxCheckpointRepository;
+import com.andrea360.gymhub.repository.OutboxDeadLetterRepository;
+import com.andrea360.gymhub.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A consumer that keeps failing on one event gets it retried a bounded
+ * number of times, then dead-lettered, and goes on with the events after it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "gymhub.outbox.poll-interval-ms=3600000",
+        "gymhub.outbox.max-attempts=3",
+        "gymhub.outbox.retry-backoff-ms=0"
+})
+@ActiveProfiles("test")
+class OutboxRelayTests {
+
+    private static final String CONSUMER = "test-consumer";
+
+    @TestConfiguration
+    static class FailingConsumerConfig {
+
+        @Bean
+        RecordingConsumer recordingConsumer() {
+            return new RecordingConsumer();
+        }
+    }
+
+    static class RecordingConsumer implements OutboxConsumer {
+
+        final List<Long> handled = new CopyOnWriteArrayList<>();
+        int failures;
+
+        @Override
+        public String getName() {
+            return CONSUMER;
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if ("TEST_POISON".equals(event.getEventType())) {
+                failures++;
+                throw new IllegalStateException("cannot handle " + event.getId());
+            }
+            handled.add(event.getId());
+        }
+    }
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxCheckpointRepository outboxCheckpointRepository;
+
+    @Autowired
+    private OutboxDeadLetterRepository outboxDeadLetterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RecordingConsumer consumer;
+
+    @Test
+    void poisonEventIsRetriedThenDeadLettered() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.publish("Test", 1L, "TEST_OK", Map.of());
+            outboxService.publish("Test", 2L, "TEST_POISON", Map.of());
+            outboxService.publish("Test", 3L, "TEST_OK", Map.of());
+        });
+        List<OutboxEvent> events = outboxEventRepository.findAll(Sort.by("id"));
+        Long first = events.get(0).getId();
+        Long poison = events.get(1).getId();
+        Long last = events.get(2).getId();
+
+        // The first failure rolls back its whole batch; retries then deliver
+        // what precedes the poison event and try it alone
+        for (int run = 1; run <= 3; run++) {
+            outboxRelay.relay();
+            OutboxCheckpoint checkpoint = outboxCheckpointRepository.findById(CONSUMER).orElseThrow();
+            assertThat(checkpoint.getLastEventId()).isEqualTo(run == 1 ? 0L : first);
+            assertThat(checkpoint.getFailingEventId()).isEqualTo(poison);
+            assertThat(checkpoint.getAttempts()).isEqualTo(run);
+        }
+        assertThat(consumer.failures).isEqualTo(3);
+
+        outboxRelay.relay();
+
+        OutboxCheckpoint checkpoint = outboxCheckpointRepository.findById(CONSUMER).orElseThrow();
+        assertThat(checkpoint.getLastEventId()).isEqualTo(last);
+        assertThat(checkpoint.getFailingEventId()).isNull();
+        assertThat(consumer.failures).isEqualTo(3);
+        assertThat(consumer.handled).contains(first, last);
+
+        List<OutboxDeadLetter> deadLetters = outboxDeadLetterRepository.findByConsumer(CONSUMER);
+        assertThat(deadLetters).singleElement().satisfies(deadLetter -> {
+            assertThat(deadLetter.getEventId()).isEqualTo(poison);
+            assertThat(deadLetter.getAttempts()).isEqualTo(3);
+            assertThat(deadLetter.getLastError()).contains("cannot handle");
+        });
+    }
+}
@@ -1,8 +1,8 @@
 import { useCallback, useEffect, useState } from 'react';
 import { useAuth } from '../../contexts/AuthContext';
-import { useWebSocket } from '../../hooks/useWebSocket';
+import { useWebSocket, type MemberNotification, type ViewerUpdate } from '../../hooks/useWebSocket';
 import api from '../../services/api';
-import type { AppointmentResponse } from '../../types';
+import type { AppointmentResponse, CreditBalance } from '../../types';
 import { getCapacityColor, normalizeAppointments } from '../../utils/appointmentMapper';
 
 export const BrowseAppointments = () => {
@@ -13,6 +13,17 @@ export const BrowseAppointments = () => {
   const [success, setSuccess] = useState('');
   const [bookingLoading, setBookingLoading] = useState<number | null>(null);
   const [userCredits, setUserCredits] = useState<Map<number, number>>(new Map());
+  const [viewers, setViewers] = useState<Map<number, number>>(new Map());
+
+  const fetchCredits = useCallback(async () => {
+    try {
+      const creditsResponse = await api.get<CreditBalance[]>('/payments/credits');
+      setUserCredits(new Map(creditsResponse.data.map((c): [number, number] => [c.gymServiceId, c.availableCredits])));
+    } catch (err) {
+      console.error('Failed to fetch credits:', err);
+      setUserCredits(new Map());
+    }
+  }, []);
 
   const fetchAppointments = useCallback(async () => {
     try {
@@ -20,25 +31,14 @@ export const BrowseAppointments = () => {
       const response = await api.get<AppointmentResponse[]>('/appointments/available');
       setAppointments(normalizeAppointments(response.data));
 
-      const creditsMap = new Map<number, number>();
-      for (const apt of response.data) {
-        try {
-          const creditResponse = await api.get<{ availableCredits: number }>(
-            `/payments/credits/${apt.gymServiceId}`
-          );
-          creditsMap.set(apt.gymServiceId, creditResponse.data.availableCredits);
-        } catch (err) {
-          creditsMap.set(apt.gymServiceId, 0);
-        }
-      }
-      setUserCredits(creditsMap);
+      await fetchCredits();
     } catch (err: any) {
       console.error('Failed to fetch appointments:', err);
       setError('Failed to load appointments');
     } finally {
       setLoading(false);
     }
-  }, []);
+  }, [fetchCredits]);
 
   const handleAppointmentUpdate = useCallback((update: {
     appointmentId: number;
@@ -63,7 +63,22 @@ export const BrowseAppointments = () => {
     );
   }, []);
 
-  const { connected } = useWebSocket(handleAppointmentUpdate);
+  const handleNotification = useCallback((notification: MemberNotification) => {
+    const { eventType, gymServiceId, availableCredits } = notification;
+    if (eventType === 'CREDITS_UPDATED' && gymServiceId != null) {
+      setUserCredits(prev => new Map(prev).set(gymServiceId, availableCredits ?? 0));
+    }
+  }, []);
+
+  const handleViewers = useCallback((update: ViewerUpdate) => {
+    setViewers(prev => new Map(prev).set(update.appointmentId, update.viewers));
+  }, []);
+
+  const { connected } = useWebSocket(handleAppointmentUpdate, {
+    onNotification: handleNotification,
+    appointmentIds: appointments.map(appointment => appointment.id),
+    onViewers: handleViewers,
+  });
 
   useEffect(() => {
     fetchAppointments();
@@ -88,14 +103,7 @@ export const BrowseAppointments = () => {
       setSuccess(`Successfully booked ${appointment.gymServiceName}! 🎉`);
 
  
-      try {
-        const creditResponse = await api.get<{ availableCredits: number }>(
-          `/payments/credits/${appointment.gymServiceId}`
-        );
-        setUserCredits(prev => new Map(prev).set(appointment.gymServiceId, creditResponse.data.availableCredits));
-      } catch (err) {
-        console.error('Failed to refresh credits:', err);
-      }
+      await fetchCredits();
 
       setTimeout(() => setSuccess(''), 3000);
     } catch (err: any) {
@@ -169,6 +177,7 @@ export const BrowseAppointments = () => {
             const isFull = appointment.isFull === true;
             const canBook = credits > 0 && !isFull;
             const isBooking = bookingLoading === appointment.id;
+            const viewing = viewers.get(appointment.id) || 0;
 
             return (
               <div
@@ -217,6 +226,11 @@ export const BrowseAppointments = () => {
                     </svg>
                     Your credits: <span className="font-bold text-white ml-1">{credits}</span>
                   </p>
+                  {viewing > 1 && (
+                    <p className="text-xs text-gray-400">
+                      ~{viewing} people viewing now
+                    </p>
+                  )}
                 </div>
 
                 <button
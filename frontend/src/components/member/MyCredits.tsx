@@ -1,6 +1,8 @@
 import { useEffect, useState } from 'react';
 import api from '../../services/api';
-import type { GymServiceResponse, PaymentResponse } from '../../types';
+import type { CreditBalance, PaymentPage, PaymentResponse } from '../../types';
+
+const PAGE_SIZE = 20;
 
 interface CreditSummary {
   gymServiceId: number;
@@ -11,7 +13,8 @@ interface CreditSummary {
 export const MyCredits = () => {
   const [payments, setPayments] = useState<PaymentResponse[]>([]);
   const [credits, setCredits] = useState<CreditSummary[]>([]);
-  const [, setServices] = useState<GymServiceResponse[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
 
@@ -23,36 +26,24 @@ export const MyCredits = () => {
     try {
       setLoading(true);
       
-      // Fetch payments history
-      const paymentsResponse = await api.get<PaymentResponse[]>('/payments/my');
-      setPayments(paymentsResponse.data);
-
-      // Fetch services to get credit info
-      const servicesResponse = await api.get<GymServiceResponse[]>('/services');
-      setServices(servicesResponse.data);
-
-      // Fetch available credits for each service
-      const creditsPromises = servicesResponse.data.map(async (service) => {
-        try {
-          const creditResponse = await api.get<{ availableCredits: number }>(
-            `/payments/credits/${service.id}`
-          );
-          return {
-            gymServiceId: service.id,
-            serviceName: service.name,
-            availableCredits: creditResponse.data.availableCredits,
-          };
-        } catch (err) {
-          return {
-            gymServiceId: service.id,
-            serviceName: service.name,
-            availableCredits: 0,
-          };
-        }
+      // First page of payment history
+      const paymentsResponse = await api.get<PaymentPage>('/payments/my', {
+        params: { size: PAGE_SIZE },
       });
-
-      const creditsData = await Promise.all(creditsPromises);
-      setCredits(creditsData.filter(c => c.availableCredits > 0));
+      setPayments(paymentsResponse.data.items);
+      setNextCursor(paymentsResponse.data.nextCursor);
+
+      // Balances for all services in one call
+      const creditsResponse = await api.get<CreditBalance[]>('/payments/credits');
+      setCredits(
+        creditsResponse.data
+          .filter(c => c.availableCredits > 0)
+          .map(c => ({
+            gymServiceId: c.gymServiceId,
+            serviceName: c.gymServiceName,
+            availableCredits: c.availableCredits,
+          }))
+      );
     } catch (err: any) {
       console.error('Failed to fetch data:', err);
       setError('Failed to load credits and payment history');
@@ -61,6 +52,23 @@ export const MyCredits = () => {
     }
   };
 
+  const loadMorePayments = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const response = await api.get<PaymentPage>('/payments/my', {
+        params: { size: PAGE_SIZE, cursor: nextCursor },
+      });
+      setPayments(prev => [...prev, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (err: any) {
+      console.error('Failed to load more payments:', err);
+      setError('Failed to load more payments');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const formatDate = (dateString: string) => {
     const date = new Date(dateString);
     return date.toLocaleString('en-US', {
@@ -213,8 +221,12 @@ export const MyCredits = () => {
                   </div>
                   <div className="flex items-center space-x-4 text-sm text-gray-400">
                     <span>{formatDate(payment.createdAt)}</span>
-                    <span>•</span>
-                    <span>ID: {payment.stripePaymentIntentId.slice(0, 16)}...</span>
+                    {payment.stripePaymentIntentId && (
+                      <>
+                        <span>•</span>
+                        <span>ID: {payment.stripePaymentIntentId.slice(0, 16)}...</span>
+                      </>
+                    )}
                   </div>
                 </div>
                 <div className="text-right">
@@ -225,6 +237,15 @@ export const MyCredits = () => {
                 </div>
               </div>
             ))}
+            {nextCursor && (
+              <button
+                onClick={loadMorePayments}
+                disabled={loadingMore}
+                className="w-full glass-dark rounded-xl p-3 text-sm font-semibold text-gray-300 hover:text-white disabled:opacity-50"
+              >
+                {loadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            )}
           </div>
         )}
       </div>
@@ -48,6 +48,7 @@ export const AuthProvider = ({ children }: { children: ReactNode }) => {
     };
 
     localStorage.setItem('token', authResponse.token);
+    localStorage.setItem('refreshToken', authResponse.refreshToken);
     localStorage.setItem('user', JSON.stringify(userData));
     setToken(authResponse.token);
     setUser(userData);
@@ -10,24 +10,63 @@ interface AppointmentUpdate {
     timestamp: number;
 }
 
+export interface MemberNotification {
+    memberId: number;
+    eventType: 'BOOKING_CONFIRMED' | 'BOOKING_CANCELLED' | 'CREDITS_UPDATED';
+    bookingId?: number;
+    appointmentId?: number;
+    gymServiceId?: number;
+    availableCredits?: number;
+    timestamp: number;
+}
+
+export interface ViewerUpdate {
+    appointmentId: number;
+    viewers: number;
+    eventType: 'VIEWERS_UPDATED';
+    timestamp: number;
+}
+
+interface WebSocketOptions {
+    // Events for the logged-in member only; needs a token
+    onNotification?: (notification: MemberNotification) => void;
+    // Appointments on screen; subscribing also counts this client as a viewer
+    appointmentIds?: number[];
+    onViewers?: (update: ViewerUpdate) => void;
+}
+
 export const useWebSocket = (
-    onAppointmentUpdate: (update: AppointmentUpdate) => void
+    onAppointmentUpdate: (update: AppointmentUpdate) => void,
+    { onNotification, appointmentIds, onViewers }: WebSocketOptions = {}
 ) => {
     const [connected, setConnected] = useState(false);
     const clientRef = useRef<Client | null>(null);
     const onUpdateRef = useRef(onAppointmentUpdate);
+    const onNotificationRef = useRef(onNotification);
+    const onViewersRef = useRef(onViewers);
+    const appointmentKey = (appointmentIds ?? []).join(',');
 
     useEffect(() => {
         onUpdateRef.current = onAppointmentUpdate;
     }, [onAppointmentUpdate]);
 
     useEffect(() => {
-        const socket = new SockJS(
-            `${import.meta.env.VITE_API_URL || 'http://localhost:8081'}/ws`
-        );
+        onNotificationRef.current = onNotification;
+    }, [onNotification]);
+
+    useEffect(() => {
+        onViewersRef.current = onViewers;
+    }, [onViewers]);
+
+    useEffect(() => {
+        const url = `${import.meta.env.VITE_API_URL || 'http://localhost:8081'}/ws`;
+
+        const token = localStorage.getItem('token');
 
         const stompClient = new Client({
-            webSocketFactory: () => socket as any,
+            // A fresh socket per attempt; a closed one cannot reconnect
+            webSocketFactory: () => new SockJS(url) as any,
+            connectHeaders: token ? { Authorization: `Bearer ${token}` } : {},
             debug: (str) => {
                 console.log('STOMP:', str);
             },
@@ -50,7 +89,18 @@ export const useWebSocket = (
                 }
             });
 
-        
+            // Anonymous sessions are refused the per-user queue
+            if (token) {
+                stompClient.subscribe('/user/queue/notifications', (message) => {
+                    try {
+                        const notification = JSON.parse(message.body) as MemberNotification;
+
+                        onNotificationRef.current?.(notification);
+                    } catch (error) {
+
+                    }
+                });
+            }
         };
 
         stompClient.onStompError = () => {
@@ -61,6 +111,11 @@ export const useWebSocket = (
             setConnected(false);
         };
 
+        // Subscriptions do not survive a reconnect; dropping connected renews them
+        stompClient.onWebSocketClose = () => {
+            setConnected(false);
+        };
+
         stompClient.activate();
         clientRef.current = stompClient;
 
@@ -71,5 +126,33 @@ export const useWebSocket = (
         };
     }, []);
 
+    useEffect(() => {
+        const client = clientRef.current;
+        if (!connected || !client || !appointmentKey) {
+            return;
+        }
+
+        const subscriptions = appointmentKey.split(',').map((id) =>
+            client.subscribe(`/topic/appointments/${id}`, (message) => {
+                try {
+                    const update = JSON.parse(message.body);
+
+                    // Booking changes also arrive on /topic/appointments
+                    if (update.eventType === 'VIEWERS_UPDATED') {
+                        onViewersRef.current?.(update as ViewerUpdate);
+                    }
+                } catch (error) {
+
+                }
+            })
+        );
+
+        return () => {
+            if (client.connected) {
+                subscriptions.forEach((subscription) => subscription.unsubscribe());
+            }
+        };
+    }, [connected, appointmentKey]);
+
     return { connected };
 };
\ No newline at end of file
@@ -23,12 +23,47 @@ api.interceptors.request.use(
 );
 
 
+// Single in-flight refresh shared by all requests that hit a 401 at the same time
+let refreshPromise: Promise<string> | null = null;
+
+const refreshAccessToken = (): Promise<string> => {
+    if (!refreshPromise) {
+        const refreshToken = localStorage.getItem('refreshToken');
+        refreshPromise = (refreshToken
+            ? axios.post(`${API_URL.replace(/\/$/, '')}/auth/refresh`, { refreshToken })
+                .then((response) => {
+                    localStorage.setItem('token', response.data.token);
+                    localStorage.setItem('refreshToken', response.data.refreshToken);
+                    return response.data.token as string;
+                })
+            : Promise.reject(new Error('No refresh token')))
+            .finally(() => {
+                refreshPromise = null;
+            });
+    }
+    return refreshPromise;
+};
+
 api.interceptors.response.use(
     (response) => response,
-    (error) => {
+    async (error) => {
+        const original = error.config;
+
+        if (error.response?.status === 401 && original && !original._retry && !original.url?.startsWith('/auth/')) {
+            original._retry = true;
+            try {
+                const token = await refreshAccessToken();
+                original.headers.Authorization = `Bearer ${token}`;
+                return api(original);
+            } catch {
+                // fall through to logout
+            }
+        }
+
         if (error.response?.status === 401) {
     
             localStorage.removeItem('token');
+            localStorage.removeItem('refreshToken');
             localStorage.removeItem('user');
             window.location.href = '/login';
         }
@@ -18,7 +18,12 @@ export const authService = {
     },
 
     logout: () => {
+        const refreshToken = localStorage.getItem('refreshToken');
+        if (refreshToken) {
+            api.post('/auth/logout', { refreshToken }).catch(() => undefined);
+        }
         localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
         localStorage.removeItem('user');
     },
 };
\ No newline at end of file
@@ -23,6 +23,7 @@ export interface User {
 
 export interface AuthResponse {
     token: string;
+    refreshToken: string;
     type: string;
     userId: number;
     email: string;
@@ -220,11 +221,22 @@ export interface PaymentResponse {
     amount: number;
     currency: string;
     status: string;
-    stripePaymentIntentId: string;
+    stripePaymentIntentId: string | null;
     clientSecret?: string;
     createdAt: string;
 }
 
+export interface PaymentPage {
+    items: PaymentResponse[];
+    nextCursor: string | null;
+}
+
+export interface CreditBalance {
+    gymServiceId: number;
+    gymServiceName: string;
+    availableCredits: number;
+}
+
 export interface CreatePaymentRequest {
     gymServiceId: number; 
     quantity: number;
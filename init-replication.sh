@@ -0,0 +1,6 @@
+#!/bin/bash
+# Lets postgres-replica stream WAL from this server. Runs once, when the
+# postgres container initialises an empty data directory.
+set -e
+
+echo "host replication ${POSTGRES_USER} all scram-sha-256" >> "$PGDATA/pg_hba.conf"